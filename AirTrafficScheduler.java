@@ -6,27 +6,384 @@ import java.util.*;
  */
 public class AirTrafficScheduler {
     // Core data structures
-    private PairingHeap pendingFlights;           // Max-heap of pending flights by priority
+    private final SchedulingEngine engine;        // Supplies the queue, timetable and runway pool
+    private PendingQueue pendingFlights;          // Pending flights by priority
+    private FairPendingQueue fairQueue;           // Replaces it under airline quotas
+    private double fairShare;
+    private int fairWindow;
     private HashMap<Integer, Flight> activeFlights; // All active flights (by flightID)
-    private HashMap<Integer, ArrayList<Flight>> airlineIndex; // Flights by airline
-    private CompletionHeap timetable;             // Binary min-heap of scheduled flights by (ETA, flightID)
+    private HashMap<Integer, AirlineFlights> airlineIndex; // Flights by airline
+    private Timetable timetable;                  // Scheduled flights by (ETA, flightID)
+    private ArrayList<ArrayList<Flight>> runwayFlights = new ArrayList<>(); // Per runway index, by start
     
     // System state  
     private int currentTime;
     private int nextRunwayID;
     private List<Runway> allRunways; // All runways in system
+    private int runwaysInUse;        // Runways held by IN_PROGRESS flights
+    private int restrictedRunways;   // Runways not accepting every flight class
+    
+    // Lazy scheduling: defer scheduleAll until a result is observed
+    private boolean lazyScheduling;
+    private boolean scheduleDirty;   // Mutations not yet reflected in the schedule
+    
+    // Rolling horizon: exact assignments only for starts up to currentTime + horizon
+    private int horizon;             // 0 = off (every pass assigns every flight)
+    private int plannedUntil;        // Every start <= this is exactly assigned
+    private PairingHeap backlog = new PairingHeap();    // Unsatisfied flights not assigned
+    private ArrayList<Flight> planned = new ArrayList<>(); // Assigned by the last pass, not started
+    private Flight[] onRunway = new Flight[0];          // IN_PROGRESS flight per runway index
+    
+    // ETA update emission: flights whose ETA changed since the last report
+    private int etaThreshold;        // Report only changes larger than this
+    private boolean etaCoalescing;   // Hold updates until the next Tick
+    private boolean etaTracking;     // A capture is open
+    private boolean inTick;
+    private int etaEpoch;
+    private ArrayList<Flight> etaTouched = new ArrayList<>();
+    
+    private int[] etaIDs = new int[16];      // Reused for each report
+    private int[] etaValues = new int[16];
+    
+    private FlightArchive archive;   // History of landed flights (optional)
+    private FlightStore store;       // Durable copy of flights and runways (optional)
+    private RunwayTelemetry telemetry;
+    private OutputSink out;          // Receives all command output
     
     /**
      * Constructor
      */
     public AirTrafficScheduler() {
-        this.pendingFlights = new PairingHeap();
+        this(SchedulingEngine.DEFAULT);
+    }
+    
+    /**
+     * Scheduler on the data structures of the given engine
+     */
+    public AirTrafficScheduler(SchedulingEngine engine) {
+        this.engine = engine;
+        this.pendingFlights = engine.newPendingQueue();
         this.activeFlights = new HashMap<>();
         this.airlineIndex = new HashMap<>();
-        this.timetable = new CompletionHeap(100); // Initial capacity
+        this.timetable = engine.newTimetable();
         this.currentTime = 0;
         this.nextRunwayID = 1;
         this.allRunways = new ArrayList<>();
+        this.telemetry = new RunwayTelemetry();
+        this.out = new TextOutput();
+    }
+    
+    /**
+     * Enable or disable lazy scheduling
+     * In lazy mode mutations only mark the schedule dirty; scheduleAll runs
+     * when a result is observed (ETA print, PrintActive, PrintSchedule, time
+     * advance, state checks). "Updated ETAs" lines are not reported.
+     */
+    public void setLazyScheduling(boolean lazy) {
+        if (!lazy) {
+            materialize();
+        }
+        this.lazyScheduling = lazy;
+    }
+    
+    /**
+     * Rolling-horizon scheduling (0 turns it off; not combined with lazy mode)
+     * A pass assigns flights in greedy order only while they start by
+     * currentTime + horizon; the rest wait in a persistent pairing heap
+     * without an ETA and are assigned as the horizon reaches them. Greedy
+     * start times only grow along the pass (per class, with capability
+     * classes), so every assignment inside the horizon is the one a full
+     * pass makes, and a pass costs O(k log n) for the k flights inside it.
+     * Results that look further ahead extend the pass on demand: a new
+     * flight's ETA, PrintSchedule up to t2, PrintActive, time advances.
+     * Reaching a new flight (or FlightStatus of a waiting one) assigns
+     * every flight ahead of it in greedy order, O(m log n) for m flights
+     * ahead; the assignments past the horizon are parked again once the
+     * result is reported, so the next pass still only takes back the k
+     * inside it. A low-priority submit behind a long backlog therefore
+     * costs about what an exact pass does.
+     * "Updated ETAs" only cover flights assigned before and after the change.
+     */
+    public void setHorizon(int horizon) {
+        materialize();
+        this.horizon = Math.max(0, horizon);
+        if (this.horizon == 0) {
+            return;
+        }
+        // Adopt the full schedule of the last pass
+        for (Flight flight : activeFlights.values()) {
+            if (flight.state == FlightState.SCHEDULED) {
+                planned.add(flight);
+            } else if (flight.state == FlightState.PENDING) {
+                backlog.insert(flight);
+            }
+        }
+        plannedUntil = Integer.MAX_VALUE;
+    }
+    
+    /**
+     * Per-airline fairness (share <= 0 turns it off; not combined with lazy
+     * scheduling or a horizon): no airline may take more than share of the
+     * runway starts in any window of the given length while another
+     * airline within quota has a flight waiting (see FairPendingQueue). The
+     * window counts every flight started in it, landed or not. Set before
+     * the first command. DelayForecaster forecasts still follow plain
+     * greedy order.
+     */
+    public void setFairness(double share, int window) {
+        this.fairShare = share;
+        this.fairWindow = window;
+        if (share > 0) {
+            fairQueue = new FairPendingQueue(share, window);
+            pendingFlights = fairQueue;
+        } else {
+            fairQueue = null;
+            pendingFlights = engine.newPendingQueue();
+        }
+    }
+    
+    /**
+     * ETA update policy
+     * threshold: only report a flight once its ETA is more than threshold
+     *   away from the ETA last reported for it (0 = every change)
+     * coalesce: hold updates and report them in one line at the next Tick
+     */
+    public void setEtaUpdatePolicy(int threshold, boolean coalesce) {
+        this.etaThreshold = Math.max(0, threshold);
+        this.etaCoalescing = coalesce;
+    }
+    
+    /**
+     * Record every landed flight in the given archive (null to stop)
+     * Forks never inherit the archive.
+     */
+    public void setArchive(FlightArchive archive) {
+        this.archive = archive;
+    }
+    
+    /**
+     * Keep the flights, runways and time durable in the given store
+     * Attach before the first command. If the store holds an earlier state,
+     * that state is restored in O(n) without replaying commands: flights are
+     * reindexed, the timetable is heapified in one pass, and a scheduling
+     * pass repairs any pass the crash interrupted. Runway telemetry starts
+     * over at the restored time, with the restored pending flights queued
+     * from then. Forks never inherit the store.
+     */
+    public void setStore(FlightStore store) throws java.io.IOException {
+        this.store = store;
+        List<Runway> runways = store.readRunways();
+        List<Flight> flights = new ArrayList<>(store.flights());
+        if (runways.isEmpty() && flights.isEmpty()) {
+            store.setCurrentTime(currentTime);
+            return;
+        }
+        
+        currentTime = store.currentTime();
+        allRunways.addAll(runways);
+        nextRunwayID = runways.size() + 1;
+        for (Runway runway : runways) {
+            if (runway.capabilities != RunwayClassIndex.ALL_CLASSES) {
+                restrictedRunways++;
+            }
+        }
+        telemetry.runwaysAdded(runways.size(), currentTime);
+        
+        // Airline lists in submission order, as submitFlight builds them
+        flights.sort(Comparator.comparingInt((Flight f) -> f.submitTime)
+                               .thenComparingInt(f -> f.flightID));
+        for (Flight flight : flights) {
+            activeFlights.put(flight.flightID, flight);
+            airlineIndex.computeIfAbsent(flight.airlineID, k -> new AirlineFlights()).add(flight);
+            if (flight.state != FlightState.IN_PROGRESS) {
+                telemetry.flightSubmitted(flight);
+            } else {
+                occupy(flight);
+                if (fairQueue != null) {
+                    fairQueue.recordStart(flight, flight.startTime);   // Landed ones are not stored
+                }
+            }
+        }
+        timetable.build(flights);
+        reschedule();
+    }
+    
+    /**
+     * Send command output to the given sink
+     * Commands return the sink's take(): the output lines for the default
+     * TextOutput, nothing for sinks that write elsewhere. Forks always get
+     * their own TextOutput.
+     */
+    public void setOutputSink(OutputSink sink) {
+        this.out = sink;
+    }
+    
+    /**
+     * Fork an independent copy of the scheduler state for what-if runs
+     * Flights, indexes, runways and the timetable are copied flat (heap
+     * arrays index-for-index, no reheapify or reschedule), so a fork costs
+     * O(n) copying and shares nothing mutable with this scheduler. Every
+     * command rewrites all unsatisfied flights, so sharing flights
+     * copy-on-write would be undone by a fork's first command anyway.
+     * Call on the thread that owns this scheduler; the fork may then be
+     * used on any other thread.
+     */
+    public AirTrafficScheduler fork() {
+        AirTrafficScheduler copy = new AirTrafficScheduler(engine);
+        
+        HashMap<Integer, Flight> flights = copy.activeFlights;
+        for (Flight flight : activeFlights.values()) {
+            flights.put(flight.flightID, new Flight(flight));
+        }
+        
+        // Same per-airline order as the original lists; tombstones are not copied
+        for (Map.Entry<Integer, AirlineFlights> entry : airlineIndex.entrySet()) {
+            AirlineFlights list = new AirlineFlights();
+            for (Flight flight : entry.getValue().flights) {
+                if (!flight.removed) {
+                    list.add(flights.get(flight.flightID));
+                }
+            }
+            copy.airlineIndex.put(entry.getKey(), list);
+        }
+        
+        copy.timetable = timetable.copy(
+            flight -> flight.removed ? null : flights.get(flight.flightID));
+        
+        for (Runway runway : allRunways) {
+            Runway runwayCopy = new Runway(runway.runwayID, runway.nextFreeTime);
+            runwayCopy.capabilities = runway.capabilities;
+            if (runway.closures != null) {
+                runwayCopy.closures = new TreeMap<>(runway.closures);
+            }
+            copy.allRunways.add(runwayCopy);
+        }
+        copy.currentTime = currentTime;
+        copy.nextRunwayID = nextRunwayID;
+        copy.runwaysInUse = runwaysInUse;
+        copy.restrictedRunways = restrictedRunways;
+        copy.lazyScheduling = lazyScheduling;
+        copy.etaThreshold = etaThreshold;
+        copy.etaCoalescing = etaCoalescing;
+        copy.etaTracking = etaTracking;
+        copy.etaEpoch = etaEpoch;
+        for (Flight flight : etaTouched) {
+            Flight touched = flight.removed ? null : flights.get(flight.flightID);
+            if (touched != null) {
+                copy.etaTouched.add(touched);
+            }
+        }
+        copy.scheduleDirty = scheduleDirty;
+        copy.horizon = horizon;
+        if (fairQueue != null) {
+            copy.fairShare = fairShare;
+            copy.fairWindow = fairWindow;
+            copy.fairQueue = fairQueue.copy();
+            copy.pendingFlights = copy.fairQueue;
+        }
+        copy.plannedUntil = plannedUntil;
+        for (Flight flight : activeFlights.values()) {
+            if (flight.heapNode != null && horizon > 0) {
+                copy.backlog.insert(flights.get(flight.flightID));
+            }
+        }
+        for (Flight flight : planned) {
+            if (!flight.removed) {
+                copy.planned.add(flights.get(flight.flightID));
+            }
+        }
+        copy.onRunway = new Flight[onRunway.length];
+        for (int i = 0; i < onRunway.length; i++) {
+            if (onRunway[i] != null) {
+                copy.onRunway[i] = flights.get(onRunway[i].flightID);
+            }
+        }
+        for (ArrayList<Flight> list : runwayFlights) {
+            ArrayList<Flight> listCopy = new ArrayList<>(list.size());
+            for (Flight flight : list) {
+                if (!flight.removed) {
+                    listCopy.add(flights.get(flight.flightID));
+                }
+            }
+            copy.runwayFlights.add(listCopy);
+        }
+        copy.telemetry = telemetry.copy();
+        return copy;
+    }
+    
+    /**
+     * Current ETA of every scheduled active flight (brings a lazy schedule
+     * up to date first)
+     */
+    Map<Integer, Integer> etaSnapshot() {
+        materialize();
+        extendHorizon(Integer.MAX_VALUE);
+        Map<Integer, Integer> etas = new HashMap<>();
+        for (Flight flight : activeFlights.values()) {
+            if (flight.ETA > 0) {
+                etas.put(flight.flightID, flight.ETA);
+            }
+        }
+        return etas;
+    }
+    
+    /**
+     * Compact read-only snapshot of the unsatisfied flights for Monte Carlo
+     * ETA forecasting (see DelayForecaster)
+     */
+    public DelayForecaster delayForecaster() {
+        materialize();
+        
+        // Runway IDs are assigned 1..n in order, so index = runwayID - 1
+        int[] runwayFree = new int[allRunways.size()];
+        Arrays.fill(runwayFree, currentTime);
+        int[][] closureStarts = new int[allRunways.size()][];
+        int[][] closureEnds = new int[allRunways.size()][];
+        for (int i = 0; i < allRunways.size(); i++) {
+            TreeMap<Integer, Integer> closures = allRunways.get(i).closures;
+            if (closures != null) {
+                closureStarts[i] = closures.keySet().stream().mapToInt(Integer::intValue).toArray();
+                closureEnds[i] = closures.values().stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+        
+        List<Flight> pending = new ArrayList<>();
+        for (Flight flight : activeFlights.values()) {
+            if (flight.isUnsatisfied(currentTime)) {
+                pending.add(flight);
+            } else if (flight.state == FlightState.IN_PROGRESS) {
+                runwayFree[flight.runwayID - 1] = Math.max(runwayFree[flight.runwayID - 1], flight.ETA);
+            }
+        }
+        
+        // Same order as extractMax: priority DESC, submitTime ASC, flightID ASC
+        pending.sort((a, b) -> {
+            if (a.priority != b.priority) return Integer.compare(b.priority, a.priority);
+            if (a.submitTime != b.submitTime) return Integer.compare(a.submitTime, b.submitTime);
+            return Integer.compare(a.flightID, b.flightID);
+        });
+        
+        int[] ids = new int[pending.size()];
+        int[] durations = new int[pending.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = pending.get(i).flightID;
+            durations[i] = pending.get(i).duration;
+        }
+        DelayForecaster forecaster = new DelayForecaster(currentTime, ids, durations, runwayFree,
+                                                         closureStarts, closureEnds);
+        
+        if (restrictedRunways > 0) {
+            int[] classes = new int[ids.length];
+            for (int i = 0; i < classes.length; i++) {
+                classes[i] = pending.get(i).flightClass;
+            }
+            int[] masks = new int[allRunways.size()];
+            for (int i = 0; i < masks.length; i++) {
+                masks[i] = allRunways.get(i).capabilities;
+            }
+            forecaster.setCapabilities(classes, masks);
+        }
+        return forecaster;
     }
     
     /**
@@ -42,6 +399,8 @@ public class AirTrafficScheduler {
             Runway runway = new Runway(nextRunwayID++, 0);
             allRunways.add(runway);
         }
+        telemetry.runwaysAdded(numRunways, currentTime);
+        persistRunways();
         
         return numRunways + " Runways are now available";
     }
@@ -51,168 +410,230 @@ public class AirTrafficScheduler {
      */
     public List<String> submitFlight(int flightID, int airlineID, int currentTime, 
                                       int priority, int duration) {
-        List<String> output = new ArrayList<>();
+        return submitFlight(flightID, airlineID, currentTime, priority, duration, 0);
+    }
+    
+    /**
+     * SubmitFlight with a capability class: only runways accepting the
+     * class may take the flight
+     */
+    public List<String> submitFlight(int flightID, int airlineID, int currentTime, 
+                                      int priority, int duration, int flightClass) {
+        if (flightClass < 0 || flightClass >= RunwayClassIndex.MAX_CLASSES) {
+            out.line("Invalid input. Please provide a valid flight class.");
+            return out.take();
+        }
         
         // Check for duplicate
         if (activeFlights.containsKey(flightID)) {
-            output.add("Duplicate FlightID");
-            return output;
+            out.line("Duplicate FlightID");
+            return out.take();
         }
         
         // Advance time and settle
-        output.addAll(advanceTime(currentTime));
+        advanceTime(currentTime);
+        
+        // A deferred pass must commit its starts before this flight competes
+        commitPendingStarts();
         
         // Create new flight
         Flight flight = new Flight(flightID, airlineID, currentTime, priority, duration);
+        flight.flightClass = flightClass;
         
         // Add to active flights
         activeFlights.put(flightID, flight);
         
         // Add to airline index
-        airlineIndex.computeIfAbsent(airlineID, k -> new ArrayList<>()).add(flight);
+        airlineIndex.computeIfAbsent(airlineID, k -> new AirlineFlights()).add(flight);
+        telemetry.flightSubmitted(flight);
+        if (horizon > 0) {
+            backlog.insert(flight);
+        }
         
         // Capture old ETAs
-        Map<Integer, Integer> oldETAs = captureETAs();
-        
-        // Reschedule all unsatisfied flights
-        scheduleAll();
+        boolean trackETAs = captureETAs();
+        
+        // Reschedule all unsatisfied flights (the ETA print observes it)
+        reschedule();
+        materialize();
+        if (flight.heapNode != null && horizon > 0) {
+            // Starts beyond the horizon: carry the pass on through it
+            scheduleHorizon(horizonEnd(), flight);
+        }
         
         // Output
-        output.add(String.format("Flight %d scheduled - ETA: %d", flightID, flight.ETA));
-        output.addAll(generateETAUpdates(oldETAs));
+        if (flight.ETA < 0) {
+            out.pending(flightID);
+        } else {
+            out.scheduled(flightID, flight.ETA);
+            flight.reportedETA = flight.ETA;
+        }
+        persist(flight);
+        generateETAUpdates(trackETAs);
+        if (horizon > 0) {
+            parkBeyondHorizon();
+        }
         
-        return output;
+        return out.take();
     }
     
     /**
      * 3. CancelFlight - Remove a flight that hasn't started
      */
     public List<String> cancelFlight(int flightID, int currentTime) {
-        List<String> output = new ArrayList<>();
-        
         // Phase 1 & 2: Advance time and settle (includes reschedule)
-        output.addAll(advanceTime(currentTime));
+        advanceTime(currentTime);
         
         // Lookup flight
         Flight flight = activeFlights.get(flightID);
         
         if (flight == null) {
-            output.add(String.format("Flight %d does not exist", flightID));
-            return output;
+            out.line(String.format("Flight %d does not exist", flightID));
+            return out.take();
         }
         
+        commitPendingStarts();
+        
         // Check if already departed or completed
         if (flight.state == FlightState.IN_PROGRESS || flight.state == FlightState.COMPLETED) {
-            output.add(String.format("Cannot cancel. Flight %d has already departed", flightID));
-            return output;
+            out.line(String.format("Cannot cancel. Flight %d has already departed", flightID));
+            return out.take();
         }
         
         // Capture ETAs before operation
-        Map<Integer, Integer> oldETAs = captureETAs();
+        boolean trackETAs = captureETAs();
         
         // Perform operation: Remove from all structures
+        telemetry.flightRemoved(flight, this.currentTime);
         removeFlight(flight);
         
         // Phase 2 again: Reschedule after operation changed unsatisfied flights
-        scheduleAll();
+        reschedule();
         
-        output.add(String.format("Flight %d has been canceled", flightID));
-        output.addAll(generateETAUpdates(oldETAs));
+        out.line(String.format("Flight %d has been canceled", flightID));
+        generateETAUpdates(trackETAs);
         
-        return output;
+        return out.take();
     }
     
     /**
      * 4. Reprioritize - Change flight's priority and reschedule
      */
     public List<String> reprioritize(int flightID, int currentTime, int newPriority) {
-        List<String> output = new ArrayList<>();
-        
         // Advance time and settle
-        output.addAll(advanceTime(currentTime));
+        advanceTime(currentTime);
         
         // Lookup flight
         Flight flight = activeFlights.get(flightID);
         
         if (flight == null) {
-            output.add(String.format("Flight %d not found", flightID));
-            return output;
+            out.line(String.format("Flight %d not found", flightID));
+            return out.take();
         }
         
+        commitPendingStarts();
+        
         // Check if already departed
         if (flight.state == FlightState.IN_PROGRESS || flight.state == FlightState.COMPLETED) {
-            output.add(String.format("Cannot reprioritize. Flight %d has already departed", flightID));
-            return output;
+            out.line(String.format("Cannot reprioritize. Flight %d has already departed", flightID));
+            return out.take();
         }
         
-        Map<Integer, Integer> oldETAs = captureETAs();
+        boolean trackETAs = captureETAs();
         
-        // Update flight's priority
+        // Update flight's priority (re-placing it in the backlog heap)
+        boolean backlogged = flight.heapNode != null && horizon > 0;
+        if (backlogged) {
+            backlog.delete(flight.heapNode);
+        }
         flight.priority = newPriority;
+        if (backlogged) {
+            backlog.insert(flight);
+        }
+        persist(flight);
         
         // Reschedule all unsatisfied flights
-        scheduleAll();
+        reschedule();
         
-        output.add(String.format("Priority of Flight %d has been updated to %d", 
-                                 flightID, newPriority));
-        output.addAll(generateETAUpdates(oldETAs));
+        out.line(String.format("Priority of Flight %d has been updated to %d", 
+                               flightID, newPriority));
+        generateETAUpdates(trackETAs);
         
-        return output;
+        return out.take();
     }
     
     /**
      * 5. AddRunways - Add more runways to the system
      */
     public List<String> addRunways(int count, int currentTime) {
-        List<String> output = new ArrayList<>();
-        
+        return addRunways(count, currentTime, RunwayClassIndex.ALL_CLASSES);
+    }
+    
+    /**
+     * AddRunways accepting only the flight classes set in capabilities
+     */
+    public List<String> addRunways(int count, int currentTime, int capabilities) {
         if (count <= 0) {
-            output.add("Invalid input. Please provide a valid number of runways.");
-            return output;
+            out.line("Invalid input. Please provide a valid number of runways.");
+            return out.take();
+        }
+        if (capabilities == 0) {
+            out.line("Invalid input. Please provide a valid capability mask.");
+            return out.take();
         }
         
         // Advance time and settle
-        output.addAll(advanceTime(currentTime));
+        advanceTime(currentTime);
+        commitPendingStarts();
         
-        Map<Integer, Integer> oldETAs = captureETAs();
+        boolean trackETAs = captureETAs();
         
         // Add new runways
         for (int i = 0; i < count; i++) {
             Runway runway = new Runway(nextRunwayID++, currentTime);
+            runway.capabilities = capabilities;
             allRunways.add(runway);
         }
+        if (capabilities != RunwayClassIndex.ALL_CLASSES) {
+            restrictedRunways += count;
+        }
+        telemetry.runwaysAdded(count, currentTime);
+        persistRunways();
         
         // Reschedule unsatisfied flights
-        scheduleAll();
+        reschedule();
         
-        output.add(String.format("Additional %d Runways are now available", count));
-        output.addAll(generateETAUpdates(oldETAs));
+        out.line(String.format("Additional %d Runways are now available", count));
+        generateETAUpdates(trackETAs);
         
-        return output;
+        return out.take();
     }
     
     /**
      * 6. GroundHold - Block flights from specific airlines
      */
     public List<String> groundHold(int airlineLow, int airlineHigh, int currentTime) {
-        List<String> output = new ArrayList<>();
-        
         if (airlineHigh < airlineLow) {
-            output.add("Invalid input. Please provide a valid airline range.");
-            return output;
+            out.line("Invalid input. Please provide a valid airline range.");
+            return out.take();
         }
         
         // Advance time and settle
-        output.addAll(advanceTime(currentTime));
+        advanceTime(currentTime);
+        commitPendingStarts();
         
-        Map<Integer, Integer> oldETAs = captureETAs();
+        boolean trackETAs = captureETAs();
         
-        // Remove unsatisfied flights in airline range
+        // Remove unsatisfied flights in airline range (collected first, so
+        // the lists are not compacted while they are read)
         List<Flight> toRemove = new ArrayList<>();
         for (int airlineID = airlineLow; airlineID <= airlineHigh; airlineID++) {
-            ArrayList<Flight> flights = airlineIndex.get(airlineID);
+            AirlineFlights flights = airlineIndex.get(airlineID);
             if (flights != null) {
-                for (Flight flight : new ArrayList<>(flights)) {
+                for (Flight flight : flights.flights) {
+                    if (flight.removed) {
+                        continue;
+                    }
                     if (flight.state == FlightState.PENDING || 
                         (flight.state == FlightState.SCHEDULED && flight.startTime > currentTime)) {
                         toRemove.add(flight);
@@ -221,58 +642,254 @@ public class AirTrafficScheduler {
             }
         }
         
+        SchedulerEvents.GroundHoldEvent event = new SchedulerEvents.GroundHoldEvent();
+        event.begin();
         for (Flight flight : toRemove) {
+            telemetry.flightRemoved(flight, this.currentTime);
             removeFlight(flight);
         }
+        event.end();
+        if (toRemove.size() >= SchedulerEvents.LARGE_GROUND_HOLD && event.shouldCommit()) {
+            event.airlineLow = airlineLow;
+            event.airlineHigh = airlineHigh;
+            event.removed = toRemove.size();
+            event.commit();
+        }
         
         // Reschedule remaining flights
-        scheduleAll();
+        reschedule();
         
-        output.add(String.format("Flights of the airlines in the range [%d, %d] have been grounded",
-                                 airlineLow, airlineHigh));
-        output.addAll(generateETAUpdates(oldETAs));
+        out.line(String.format("Flights of the airlines in the range [%d, %d] have been grounded",
+                               airlineLow, airlineHigh));
+        generateETAUpdates(trackETAs);
         
-        return output;
+        return out.take();
+    }
+    
+    /**
+     * CloseRunway - Take a runway out of service from currentTime until reopened
+     * A flight already on the runway finishes; nothing new starts on it.
+     */
+    public List<String> closeRunway(int runwayID, int currentTime) {
+        return changeClosures(runwayID, currentTime, Runway.OPEN_ENDED, currentTime,
+                              String.format("Runway %d is now closed", runwayID));
+    }
+    
+    /**
+     * ReopenRunway - End the closure in effect at currentTime
+     */
+    public List<String> reopenRunway(int runwayID, int currentTime) {
+        return changeClosures(runwayID, currentTime, -1, currentTime,
+                              String.format("Runway %d has been reopened", runwayID));
+    }
+    
+    /**
+     * ScheduleMaintenance - Close a runway for the window [from, to)
+     */
+    public List<String> scheduleMaintenance(int runwayID, int from, int to, int currentTime) {
+        if (to <= from || to <= currentTime) {
+            out.line("Invalid input. Please provide a valid maintenance window.");
+            return out.take();
+        }
+        return changeClosures(runwayID, from, to, currentTime,
+                              String.format("Maintenance scheduled on runway %d from %d to %d",
+                                            runwayID, from, to));
+    }
+    
+    /**
+     * Shared by the closure commands: close [from, to), or reopen at from when
+     * to is -1. Only the one runway's window list changes (O(log w)); the
+     * reschedule is the same pass every command ends with.
+     */
+    private List<String> changeClosures(int runwayID, int from, int to, int currentTime,
+                                        String message) {
+        // Advance time and settle
+        advanceTime(currentTime);
+        
+        if (runwayID < 1 || runwayID > allRunways.size()) {
+            out.line(String.format("Runway %d does not exist", runwayID));
+            return out.take();
+        }
+        
+        commitPendingStarts();
+        
+        Runway runway = allRunways.get(runwayID - 1);   // IDs are assigned 1..n in order
+        runway.pruneClosures(this.currentTime);
+        
+        int at = Math.max(from, this.currentTime);
+        if (to < 0 && runway.earliestOpen(at) == at) {
+            out.line(String.format("Runway %d is not closed", runwayID));
+            return out.take();
+        }
+        
+        boolean trackETAs = captureETAs();
+        
+        if (to < 0) {
+            runway.reopen(at);
+        } else {
+            runway.close(at, to);
+        }
+        persistRunways();
+        
+        // Reschedule unsatisfied flights around the new windows
+        reschedule();
+        
+        out.line(message);
+        generateETAUpdates(trackETAs);
+        
+        return out.take();
     }
     
     /**
      * 7. PrintActive - Show all active flights
      */
     public List<String> printActive() {
+        materialize();
+        extendHorizon(Integer.MAX_VALUE);
+        
         if (activeFlights.isEmpty()) {
-            return Arrays.asList("No active flights");
+            out.line("No active flights");
+            return out.take();
         }
         
         // Sort by flightID
         List<Flight> flights = new ArrayList<>(activeFlights.values());
         flights.sort(Comparator.comparingInt(f -> f.flightID));
         
-        List<String> output = new ArrayList<>();
         for (Flight flight : flights) {
-            output.add(flight.toString());
+            out.activeFlight(flight.flightID, flight.airlineID, flight.runwayID,
+                             flight.startTime, flight.ETA);
         }
         
-        return output;
+        return out.take();
     }
     
     /**
      * 8. PrintSchedule - Show scheduled flights in time range [t1, t2]
      */
     public List<String> printSchedule(int t1, int t2) {
+        materialize();
+        extendHorizon(t2);
+        
         // Get flights from completion heap with ETA in [t1, t2]
         List<Flight> scheduled = timetable.getFlightsInRange(t1, t2, currentTime);
         
         if (scheduled.isEmpty()) {
-            return Arrays.asList("There are no flights in that time period");
+            out.line("There are no flights in that time period");
+            return out.take();
         }
         
         // Already sorted by (ETA, flightID) from TreeMap
-        List<String> output = new ArrayList<>();
         for (Flight flight : scheduled) {
-            output.add(String.format("[%d]", flight.flightID));
+            out.scheduleEntry(flight.flightID);
+        }
+        
+        return out.take();
+    }
+    
+    /**
+     * FlightStatus - One active flight, looked up by ID in O(1)
+     * A flight waiting beyond the horizon is assigned first by carrying the
+     * pass on through it, as for a new flight.
+     */
+    public List<String> flightStatus(int flightID) {
+        materialize();
+        
+        Flight flight = activeFlights.get(flightID);
+        if (flight == null) {
+            out.line(String.format("Flight %d does not exist", flightID));
+            return out.take();
+        }
+        boolean waiting = flight.heapNode != null && horizon > 0 && plannedUntil < Integer.MAX_VALUE;
+        if (waiting) {
+            scheduleHorizon(Math.max(horizonEnd(), plannedUntil), flight);
         }
         
-        return output;
+        out.activeFlight(flight.flightID, flight.airlineID, flight.runwayID,
+                         flight.startTime, flight.ETA);
+        if (waiting) {
+            parkBeyondHorizon();
+        }
+        return out.take();
+    }
+    
+    /**
+     * AirlineSchedule - Active flights of one airline in submission order
+     * Read from the airline index: O(k) for the airline's k list entries.
+     */
+    public List<String> airlineSchedule(int airlineID) {
+        materialize();
+        
+        AirlineFlights flights = airlineIndex.get(airlineID);
+        if (flights == null) {
+            out.line(String.format("No active flights for airline %d", airlineID));
+            return out.take();
+        }
+        if (horizon > 0) {
+            // One of them waiting beyond the horizon needs the rest of the pass
+            for (Flight flight : flights.flights) {
+                if (!flight.removed && flight.heapNode != null) {
+                    extendHorizon(Integer.MAX_VALUE);
+                    break;
+                }
+            }
+        }
+        
+        int count = 0;
+        for (Flight flight : flights.flights) {
+            if (!flight.removed) {
+                out.activeFlight(flight.flightID, flight.airlineID, flight.runwayID,
+                                 flight.startTime, flight.ETA);
+                count++;
+            }
+        }
+        if (count == 0) {
+            out.line(String.format("No active flights for airline %d", airlineID));
+        }
+        return out.take();
+    }
+    
+    /**
+     * RunwaySchedule - Flights on one runway in start order: the one in
+     * progress, then those scheduled after it
+     * Read from the per-runway index the scheduling pass fills as it assigns
+     * (starts on a runway only grow along a pass): O(k) for its k flights.
+     */
+    public List<String> runwaySchedule(int runwayID) {
+        materialize();
+        
+        if (runwayID < 1 || runwayID > allRunways.size()) {
+            out.line(String.format("Runway %d does not exist", runwayID));
+            return out.take();
+        }
+        extendHorizon(Integer.MAX_VALUE);
+        
+        int count = 0;
+        if (runwayID <= runwayFlights.size()) {
+            for (Flight flight : runwayFlights.get(runwayID - 1)) {
+                if (!flight.removed) {   // Landed since the pass (lazy mode)
+                    out.activeFlight(flight.flightID, flight.airlineID, flight.runwayID,
+                                     flight.startTime, flight.ETA);
+                    count++;
+                }
+            }
+        }
+        if (count == 0) {
+            out.line(String.format("No flights on runway %d", runwayID));
+        }
+        return out.take();
+    }
+    
+    /**
+     * RunwayStats - Per-runway utilisation, idle gaps, queue depth and waits
+     * as of the current time (kept incrementally, no rescan)
+     */
+    public List<String> runwayStats() {
+        materialize();
+        for (String line : telemetry.report(currentTime)) {
+            out.line(line);
+        }
+        return out.take();
     }
     
     /**
@@ -285,19 +902,34 @@ public class AirTrafficScheduler {
         // - Promotion: Mark SCHEDULED → IN_PROGRESS
         // - Phase 2: Reschedule unsatisfied flights
         // - Print Updated ETAs if any changed
-        return advanceTime(t);
+        inTick = true;
+        try {
+            advanceTime(t);
+            return out.take();
+        } finally {
+            inTick = false;
+        }
     }
     
     /**
      * Advance system time to t, settle completions, and reschedule
      * Implements the two-phase update process
      */
-    private List<String> advanceTime(int t) {
+    private void advanceTime(int t) {
         if (t < currentTime) {
-            return new ArrayList<>();
+            return;
+        }
+        
+        // Landing detection needs the schedule as of the current time,
+        // covering every flight that may start by t
+        if (t > currentTime) {
+            materialize();
+            extendHorizon(t);
         }
         
-        List<String> output = new ArrayList<>();
+        long settleStart = SchedulerMetrics.ENABLED ? System.nanoTime() : 0L;
+        SchedulerEvents.SettlementEvent settlement = new SchedulerEvents.SettlementEvent();
+        settlement.begin();
         
         // Phase 1: Settle completions - extract all flights with ETA <= t from heap
         List<Flight> landed = timetable.extractAllUpTo(t);
@@ -305,32 +937,78 @@ public class AirTrafficScheduler {
         // Mark as completed and remove from active structures
         for (Flight flight : landed) {
             if (flight.state != FlightState.COMPLETED) {
+                // Started and landed within the same time step
+                if (flight.state == FlightState.SCHEDULED) {
+                    telemetry.flightStarted(flight);
+                    if (fairQueue != null) {
+                        fairQueue.recordStart(flight, flight.startTime);
+                    }
+                }
                 flight.state = FlightState.COMPLETED;
                 removeFlight(flight);
             }
-            output.add(String.format("Flight %d has landed at time %d", flight.flightID, flight.ETA));
+            if (archive != null) {
+                archive.append(flight);
+            }
+            out.landed(flight.flightID, flight.ETA);
+        }
+        
+        if (SchedulerMetrics.ENABLED) {
+            SchedulerMetrics.recordLanded(landed.size());
+            SchedulerMetrics.recordPhase(SchedulerMetrics.Phase.SETTLE, settleStart);
+        }
+        settlement.end();
+        if (!landed.isEmpty() && settlement.shouldCommit()) {
+            settlement.fromTime = currentTime;
+            settlement.toTime = t;
+            settlement.landed = landed.size();
+            settlement.commit();
         }
         
         // Update current time
         currentTime = t;
+        if (store != null) {
+            store.setCurrentTime(t);
+        }
         
         // Promotion Step (between phases): Mark scheduled flights as in-progress
-        for (Flight flight : activeFlights.values()) {
+        // (with a horizon, every scheduled flight is in the planned list)
+        runwaysInUse = 0;
+        for (Flight flight : horizon > 0 ? planned : activeFlights.values()) {
             if (flight.state == FlightState.SCHEDULED && flight.startTime <= currentTime) {
                 flight.state = FlightState.IN_PROGRESS;
+                telemetry.flightStarted(flight);
+                if (fairQueue != null) {
+                    fairQueue.recordStart(flight, flight.startTime);
+                }
+                persist(flight);
+                occupy(flight);
             }
+            if (flight.state == FlightState.IN_PROGRESS) {
+                runwaysInUse++;
+            }
+        }
+        if (horizon > 0) {
+            runwaysInUse = countOccupied();
+        }
+        telemetry.maybeDump(currentTime);
+        
+        // Lazy mode skips Phase 2: a rerun from the new time reproduces the
+        // previous pass. A flight that started took a runway keyed <= t, so
+        // every earlier flight able to use that runway started too; the
+        // flights left see the same compatible runways as before
+        if (lazyScheduling) {
+            return;
         }
         
         // Capture ETAs before Phase 2
-        Map<Integer, Integer> oldETAs = captureETAs();
+        boolean trackETAs = captureETAs();
         
         // Phase 2: Reschedule unsatisfied flights from currentTime
         scheduleAll();
         
         // Print Updated ETAs if any changed during Phase 2
-        output.addAll(generateETAUpdates(oldETAs));
-        
-        return output;
+        generateETAUpdates(trackETAs);
     }
     
     /**
@@ -338,7 +1016,15 @@ public class AirTrafficScheduler {
      * This is the main scheduling algorithm
      */
     private void scheduleAll() {
-        // Clear pending heap and collect unsatisfied flights
+        if (horizon > 0) {
+            scheduleHorizon(horizonEnd(), null);
+            return;
+        }
+        long start = SchedulerMetrics.ENABLED ? System.nanoTime() : 0L;
+        SchedulerEvents.SchedulePassEvent event = new SchedulerEvents.SchedulePassEvent();
+        event.begin();
+        
+        // Clear pending queue and collect unsatisfied flights
         pendingFlights.clear();
         
         for (Flight flight : activeFlights.values()) {
@@ -351,13 +1037,11 @@ public class AirTrafficScheduler {
                     timetable.delete(flight);
                 }
                 
-                // Add to pending heap (will be sorted by priority, submitTime, flightID)
+                // Add to pending queue (will be sorted by priority, submitTime, flightID)
                 pendingFlights.insert(flight);
             }
         }
-        
-        // Build runway min-heap with current availability
-        RunwayHeap runwayHeap = new RunwayHeap(allRunways.size());
+        int rescheduled = pendingFlights.size();
         
         // Track which runways are in use by in-progress flights
         Map<Integer, Integer> runwayNextFree = new HashMap<>();
@@ -365,102 +1049,562 @@ public class AirTrafficScheduler {
             runwayNextFree.put(runway.runwayID, currentTime);
         }
         
-        // Update with in-progress flights
+        // Update with in-progress flights (the fair queue already counts
+        // their starts)
+        runwaysInUse = 0;
+        clearRunwayFlights();
         for (Flight flight : activeFlights.values()) {
             if (flight.state == FlightState.IN_PROGRESS) {
                 runwayNextFree.put(flight.runwayID, flight.ETA);
+                runwayFlights.get(flight.runwayID - 1).add(flight);
+                runwaysInUse++;
             }
         }
         
-        // Insert all runways into heap with their current nextFreeTime
+        if (restrictedRunways == 0) {
+            assignAnyRunway(runwayNextFree);
+        } else {
+            assignCompatibleRunway(runwayNextFree);
+        }
+        scheduleDirty = false;
+        
+        if (SchedulerMetrics.ENABLED) {
+            SchedulerMetrics.recordReschedule(rescheduled, activeFlights.size(), rescheduled,
+                                              timetable.size(), allRunways.size());
+            SchedulerMetrics.recordPhase(SchedulerMetrics.Phase.SCHEDULE_ALL, start);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.currentTime = currentTime;
+            event.flights = rescheduled;
+            event.runways = allRunways.size();
+            event.activeFlights = activeFlights.size();
+            event.commit();
+        }
+    }
+    
+    /**
+     * Rolling-horizon pass (see setHorizon): assign backlog flights in greedy
+     * order while they start by cutoff; with a target, assign every flight
+     * up to and including the target first
+     */
+    private void scheduleHorizon(int cutoff, Flight target) {
+        long start = SchedulerMetrics.ENABLED ? System.nanoTime() : 0L;
+        SchedulerEvents.SchedulePassEvent event = new SchedulerEvents.SchedulePassEvent();
+        event.begin();
+        
+        // Take back the last pass's assignments that have not started
+        for (Flight flight : planned) {
+            if (!flight.removed && flight.state == FlightState.SCHEDULED) {
+                timetable.delete(flight);
+                unschedule(flight);
+                backlog.insert(flight);
+            }
+        }
+        planned.clear();
+        plannedUntil = cutoff;
+        int backlogged = backlog.size();
+        
+        // Earliest start per runway after its in-progress flight and closures
+        runwaysInUse = countOccupied();
+        clearRunwayFlights();
+        int[] keys = new int[allRunways.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Flight busy = i < onRunway.length ? onRunway[i] : null;
+            keys[i] = allRunways.get(i).earliestOpen(busy != null ? busy.ETA : currentTime);
+            if (busy != null) {
+                runwayFlights.get(i).add(busy);
+            }
+        }
+        
+        if (restrictedRunways == 0) {
+            assignAnyRunwayUntil(keys, cutoff, target);
+        } else {
+            assignCompatibleRunwayUntil(keys, cutoff, target);
+        }
+        scheduleDirty = false;
+        
+        if (SchedulerMetrics.ENABLED) {
+            int rescheduled = backlogged - backlog.size();
+            SchedulerMetrics.recordReschedule(rescheduled, activeFlights.size(), rescheduled,
+                                              timetable.size(), allRunways.size());
+            SchedulerMetrics.recordPhase(SchedulerMetrics.Phase.SCHEDULE_ALL, start);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.currentTime = currentTime;
+            event.flights = backlogged - backlog.size();
+            event.runways = allRunways.size();
+            event.activeFlights = activeFlights.size();
+            event.commit();
+        }
+    }
+    
+    /**
+     * Horizon pass over interchangeable runways: starts only grow, so the
+     * pass stops at the first one past cutoff
+     */
+    private void assignAnyRunwayUntil(int[] keys, int cutoff, Flight target) {
+        RunwayPool runwayHeap = engine.newRunwayPool(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            Runway heapRunway = new Runway(allRunways.get(i).runwayID, keys[i]);
+            heapRunway.closures = allRunways.get(i).closures;
+            runwayHeap.insert(heapRunway);
+        }
+        
+        while (!backlog.isEmpty() && !runwayHeap.isEmpty()) {
+            int next = runwayHeap.findMin().nextFreeTime;
+            if (next == Runway.OPEN_ENDED || (next > cutoff && target == null)) {
+                break;
+            }
+            Flight flight = backlog.extractMax();
+            if (flight == target) {
+                target = null;
+            }
+            Runway runway = runwayHeap.extractMin();
+            int eta = assign(flight, runway.runwayID, Math.max(currentTime, next));
+            runway.nextFreeTime = runway.earliestOpen(eta);
+            runwayHeap.insert(runway);
+        }
+    }
+    
+    /**
+     * Horizon pass with capability classes: starts only grow per class, so a
+     * flight whose earliest compatible runway is past cutoff waits, and the
+     * pass stops once no runway is open by cutoff
+     */
+    private void assignCompatibleRunwayUntil(int[] keys, int cutoff, Flight target) {
+        int[] masks = new int[keys.length];
+        int open = 0;
+        for (int i = 0; i < keys.length; i++) {
+            masks[i] = allRunways.get(i).capabilities;
+            if (keys[i] <= cutoff) {
+                open++;
+            }
+        }
+        RunwayClassIndex index = new RunwayClassIndex(masks);
+        index.reset(keys);
+        
+        List<Flight> waiting = new ArrayList<>();
+        while (!backlog.isEmpty() && (open > 0 || target != null)) {
+            Flight flight = backlog.extractMax();
+            boolean beforeTarget = target != null;
+            if (flight == target) {
+                target = null;
+            }
+            
+            int i = index.earliest(flight.flightClass);
+            if (i < 0 || index.key(i) == Runway.OPEN_ENDED
+                || (index.key(i) > cutoff && !beforeTarget)) {
+                waiting.add(flight);
+                continue;
+            }
+            
+            Runway runway = allRunways.get(i);
+            int key = index.key(i);
+            int eta = assign(flight, runway.runwayID, Math.max(currentTime, key));
+            int newKey = runway.earliestOpen(eta);
+            if (key <= cutoff && newKey > cutoff) {
+                open--;
+            }
+            index.update(i, newKey);
+        }
+        for (Flight flight : waiting) {
+            backlog.insert(flight);
+        }
+    }
+    
+    /**
+     * After a pass carried on to a target (once its result is reported):
+     * put the assignments starting past plannedUntil back in the backlog,
+     * so planned, and the next pass's take-back, stay inside the horizon.
+     * assign never put them in the timetable, and their reported ETAs are
+     * kept, so they are compared again on return.
+     */
+    private void parkBeyondHorizon() {
+        for (ArrayList<Flight> flights : runwayFlights) {
+            // In start order: the flights to park are a suffix
+            int keep = flights.size();
+            while (keep > 0 && flights.get(keep - 1).state == FlightState.SCHEDULED
+                   && flights.get(keep - 1).startTime > plannedUntil) {
+                keep--;
+            }
+            flights.subList(keep, flights.size()).clear();
+        }
+        int kept = 0;
+        for (Flight flight : planned) {
+            if (!flight.removed && flight.state == FlightState.SCHEDULED
+                && flight.startTime > plannedUntil) {
+                unschedule(flight);
+                backlog.insert(flight);
+            } else {
+                planned.set(kept++, flight);
+            }
+        }
+        planned.subList(kept, planned.size()).clear();
+    }
+    
+    /**
+     * Make sure every flight able to start by t is assigned (horizon mode)
+     */
+    private void extendHorizon(int t) {
+        if (horizon > 0 && t > plannedUntil) {
+            scheduleHorizon(t, null);
+        }
+    }
+    
+    private int horizonEnd() {
+        return (int) Math.min((long) currentTime + horizon, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Note the flight holding its runway (IN_PROGRESS)
+     */
+    private void occupy(Flight flight) {
+        if (flight.runwayID > onRunway.length) {
+            onRunway = Arrays.copyOf(onRunway, Math.max(flight.runwayID, onRunway.length * 2));
+        }
+        onRunway[flight.runwayID - 1] = flight;
+    }
+    
+    /**
+     * Empty the per-runway index for a new pass, one list per runway
+     */
+    private void clearRunwayFlights() {
+        for (ArrayList<Flight> flights : runwayFlights) {
+            flights.clear();
+        }
+        while (runwayFlights.size() < allRunways.size()) {
+            runwayFlights.add(new ArrayList<>());
+        }
+    }
+    
+    private int countOccupied() {
+        int count = 0;
+        for (Flight flight : onRunway) {
+            if (flight != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Greedy assignment when every runway accepts every flight class
+     */
+    private void assignAnyRunway(Map<Integer, Integer> runwayNextFree) {
+        // Build runway min-heap with current availability
+        RunwayPool runwayHeap = engine.newRunwayPool(allRunways.size());
+        
+        // Insert all runways into heap keyed by the earliest time a flight
+        // may start on them (after the current flight and any closure)
         for (Runway runway : allRunways) {
             int nextFree = runwayNextFree.get(runway.runwayID);
-            Runway heapRunway = new Runway(runway.runwayID, nextFree);
+            Runway heapRunway = new Runway(runway.runwayID, runway.earliestOpen(nextFree));
+            heapRunway.closures = runway.closures;
             runwayHeap.insert(heapRunway);
         }
         
-        // Schedule flights by extracting from pairing heap (highest priority first)
+        // Schedule flights in pending order (highest priority first)
         while (!pendingFlights.isEmpty()) {
+            // Every runway closed until reopened: the rest stay pending
+            if (runwayHeap.isEmpty() || runwayHeap.findMin().nextFreeTime == Runway.OPEN_ENDED) {
+                unscheduleRemaining();
+                break;
+            }
+            
             Flight flight = pendingFlights.extractMax();
             
             // Pick earliest free runway using min-heap
             Runway runway = runwayHeap.extractMin();
-            
-            // Assign flight to runway
-            int startTime = Math.max(currentTime, runway.nextFreeTime);
-            int eta = startTime + flight.duration;
-            
-            flight.startTime = startTime;
-            flight.ETA = eta;
-            flight.runwayID = runway.runwayID;
-            flight.state = (startTime <= currentTime) ? FlightState.IN_PROGRESS : FlightState.SCHEDULED;
+            int eta = assign(flight, runway.runwayID, Math.max(currentTime, runway.nextFreeTime));
             
             // Update runway's nextFreeTime and push back into heap
-            runway.nextFreeTime = eta;
+            runway.nextFreeTime = runway.earliestOpen(eta);
             runwayHeap.insert(runway);
+        }
+    }
+    
+    /**
+     * Greedy assignment with capability classes: each flight takes the
+     * earliest free runway that accepts its class, O(log r) per flight
+     * through the per-class heaps of RunwayClassIndex
+     */
+    private void assignCompatibleRunway(Map<Integer, Integer> runwayNextFree) {
+        int[] masks = new int[allRunways.size()];
+        int[] keys = new int[allRunways.size()];
+        for (int i = 0; i < allRunways.size(); i++) {
+            Runway runway = allRunways.get(i);
+            masks[i] = runway.capabilities;
+            keys[i] = runway.earliestOpen(runwayNextFree.get(runway.runwayID));
+        }
+        RunwayClassIndex index = new RunwayClassIndex(masks);
+        index.reset(keys);
+        
+        while (!pendingFlights.isEmpty()) {
+            Flight flight = pendingFlights.extractMax();
             
-            // Add to completion heap (timetable)
-            timetable.insert(flight);
+            // No open runway accepts this class: the flight stays pending
+            int i = index.earliest(flight.flightClass);
+            if (i < 0 || index.key(i) == Runway.OPEN_ENDED) {
+                unschedule(flight);
+                continue;
+            }
+            
+            Runway runway = allRunways.get(i);   // Index order is runwayID order
+            int eta = assign(flight, runway.runwayID, Math.max(currentTime, index.key(i)));
+            index.update(i, runway.earliestOpen(eta));
+        }
+    }
+    
+    /**
+     * Assign a flight to a runway at startTime and add it to the timetable
+     * Returns the ETA
+     */
+    private int assign(Flight flight, int runwayID, int startTime) {
+        int eta = startTime + flight.duration;
+        
+        flight.startTime = startTime;
+        setETA(flight, eta);
+        flight.runwayID = runwayID;
+        flight.state = (startTime <= currentTime) ? FlightState.IN_PROGRESS : FlightState.SCHEDULED;
+        if (fairQueue != null && flight.state == FlightState.IN_PROGRESS) {
+            fairQueue.recordStart(flight, startTime);
+        } else if (fairQueue != null) {
+            fairQueue.started(flight, startTime);
+        }
+        if (flight.state == FlightState.IN_PROGRESS) {
+            runwaysInUse++;
+            telemetry.flightStarted(flight);
+            occupy(flight);
+        } else if (horizon > 0) {
+            planned.add(flight);
+        }
+        runwayFlights.get(runwayID - 1).add(flight);
+        if (horizon > 0 && startTime > plannedUntil) {
+            return eta;   // Only carried on to a target: parked again before use
+        }
+        
+        // Add to completion heap (timetable)
+        timetable.insert(flight);
+        persist(flight);
+        return eta;
+    }
+    
+    /**
+     * Leave the flights still in the pending heap unassigned
+     */
+    private void unscheduleRemaining() {
+        while (!pendingFlights.isEmpty()) {
+            unschedule(pendingFlights.extractMax());
+        }
+    }
+    
+    /**
+     * Change a flight's ETA, noting it for the next update report
+     */
+    private void setETA(Flight flight, int eta) {
+        if (etaTracking && eta != flight.ETA && flight.etaEpoch != etaEpoch) {
+            flight.etaEpoch = etaEpoch;
+            etaTouched.add(flight);
+        }
+        flight.ETA = eta;
+    }
+    
+    private void unschedule(Flight flight) {
+        flight.startTime = -1;
+        setETA(flight, -1);
+        flight.runwayID = -1;
+        flight.state = FlightState.PENDING;
+        persist(flight);
+    }
+    
+    /**
+     * Reschedule after a mutation, or only mark the schedule dirty in lazy mode
+     */
+    private void reschedule() {
+        if (lazyScheduling) {
+            scheduleDirty = true;
+        } else {
+            scheduleAll();
+        }
+    }
+    
+    /**
+     * Bring a dirty schedule up to date before it is observed
+     */
+    private void materialize() {
+        if (scheduleDirty) {
+            scheduleAll();
+        }
+    }
+    
+    /**
+     * Run a deferred pass before a mutation only if that pass could start a
+     * flight right now. With every runway held by an in-progress flight the
+     * deferred pass would start nothing, so it can be merged with the next one.
+     * Also keeps the departed-state checks in Cancel/Reprioritize exact.
+     */
+    private void commitPendingStarts() {
+        if (scheduleDirty && runwaysInUse < allRunways.size()) {
+            scheduleAll();
         }
     }
     
     /**
      * Remove flight from all structures
+     * The flight is marked removed and left as a tombstone in its airline
+     * list and the timetable, which drop it lazily, so removing k flights
+     * costs O(k) amortized instead of a list scan and heap repair each.
      */
     private void removeFlight(Flight flight) {
+        flight.removed = true;
+        
         // Remove from active flights
         activeFlights.remove(flight.flightID);
+        if (store != null) {
+            store.free(flight);
+        }
+        if (flight.heapNode != null && horizon > 0) {
+            backlog.delete(flight.heapNode);
+        }
+        if (flight.runwayID > 0 && flight.runwayID <= onRunway.length
+            && onRunway[flight.runwayID - 1] == flight) {
+            onRunway[flight.runwayID - 1] = null;
+        }
         
-        // Remove from airline index
-        ArrayList<Flight> airlineFlights = airlineIndex.get(flight.airlineID);
+        // Tombstone in the airline index
+        AirlineFlights airlineFlights = airlineIndex.get(flight.airlineID);
         if (airlineFlights != null) {
-            airlineFlights.remove(flight);
+            airlineFlights.markRemoved();
         }
         
-        // Remove from completion heap (timetable)
+        // Tombstone in the completion heap (timetable)
         if (flight.completionHeapIndex > 0) {
-            timetable.delete(flight);
+            timetable.markRemoved(flight);
         }
     }
     
     /**
-     * Capture current ETAs for comparison
+     * Write a changed flight through to the store, if one is attached
      */
-    private Map<Integer, Integer> captureETAs() {
-        Map<Integer, Integer> etas = new HashMap<>();
-        for (Flight flight : activeFlights.values()) {
-            if (flight.ETA > 0) {
-                etas.put(flight.flightID, flight.ETA);
-            }
+    private void persist(Flight flight) {
+        if (store != null) {
+            store.write(flight);
+        }
+    }
+    
+    /**
+     * Rewrite the stored runways after one was added or its closures changed
+     */
+    private void persistRunways() {
+        if (store == null) {
+            return;
+        }
+        try {
+            store.writeRunways(allRunways);
+        } catch (java.io.IOException e) {
+            throw new java.io.UncheckedIOException("cannot write runways to flight store", e);
         }
-        return etas;
+    }
+    
+    /**
+     * Start noting ETA changes for the next update report
+     * O(1): changes are recorded as scheduleAll makes them (see setETA), so
+     * no snapshot of all ETAs is taken. While coalescing, an open capture
+     * keeps collecting until a Tick reports it.
+     * Returns false when updates are not reported (lazy mode)
+     */
+    private boolean captureETAs() {
+        if (lazyScheduling) {
+            return false; // Updates are not reported in lazy mode
+        }
+        long start = SchedulerMetrics.ENABLED ? System.nanoTime() : 0L;
+        if (!etaTracking) {
+            etaTracking = true;
+            etaEpoch++;
+            etaTouched.clear();
+        }
+        if (SchedulerMetrics.ENABLED) {
+            SchedulerMetrics.recordPhase(SchedulerMetrics.Phase.ETA_CAPTURE, start);
+        }
+        return true;
     }
     
     /**
      * Generate ETA update output
+     * Looks only at flights whose ETA changed since the capture. A flight is
+     * reported when it is still active, scheduled, had an ETA reported
+     * before, and has moved more than etaThreshold from that ETA. A flight
+     * that loses its ETA forgets the reported one, unless it only waits in
+     * the horizon backlog.
      */
-    private List<String> generateETAUpdates(Map<Integer, Integer> oldETAs) {
-        List<String> output = new ArrayList<>();
-        List<String> updates = new ArrayList<>();
-        
-        for (Flight flight : activeFlights.values()) {
-            Integer oldETA = oldETAs.get(flight.flightID);
-            // Only include flights that existed before AND whose ETA changed
-            if (flight.ETA > 0 && oldETA != null && oldETA != flight.ETA) {
-                updates.add(String.format("%d: %d", flight.flightID, flight.ETA));
+    private void generateETAUpdates(boolean tracking) {
+        if (!tracking || (etaCoalescing && !inTick)) {
+            return;
+        }
+        long start = SchedulerMetrics.ENABLED ? System.nanoTime() : 0L;
+        etaTracking = false;
+        
+        etaTouched.sort(Comparator.comparingInt(f -> f.flightID));
+        int count = 0;
+        for (Flight flight : etaTouched) {
+            // Landed, canceled or grounded since the capture
+            if (activeFlights.get(flight.flightID) != flight) {
+                continue;
             }
+            if (flight.ETA <= 0) {
+                if (flight.heapNode == null || horizon <= 0) {
+                    flight.reportedETA = -1;
+                }
+                // Parked past the horizon: keeps its reported ETA, so coming
+                // back with another one is an update
+            } else if (flight.reportedETA <= 0) {
+                flight.reportedETA = flight.ETA;   // Newly scheduled: nothing to update
+            } else if (Math.abs(flight.ETA - flight.reportedETA) > etaThreshold) {
+                if (count == etaIDs.length) {
+                    etaIDs = Arrays.copyOf(etaIDs, count * 2);
+                    etaValues = Arrays.copyOf(etaValues, count * 2);
+                }
+                etaIDs[count] = flight.flightID;
+                etaValues[count++] = flight.ETA;
+                flight.reportedETA = flight.ETA;
+            }
+            persist(flight);
         }
+        etaTouched.clear();
         
-        if (!updates.isEmpty()) {
-            updates.sort((a, b) -> {
-                int idA = Integer.parseInt(a.split(":")[0]);
-                int idB = Integer.parseInt(b.split(":")[0]);
-                return Integer.compare(idA, idB);
-            });
-            output.add("Updated ETAs: [" + String.join(", ", updates) + "]");
+        if (count > 0) {
+            out.updatedETAs(etaIDs, etaValues, count);
         }
         
-        return output;
+        if (SchedulerMetrics.ENABLED) {
+            SchedulerMetrics.recordEtaUpdates(count);
+            SchedulerMetrics.recordPhase(SchedulerMetrics.Phase.ETA_DIFF, start);
+        }
     }
 }
 
+/**
+ * Flights of one airline in submission order
+ * Removed flights stay in the list until they make up more than half of
+ * it, then all of them are dropped in one pass.
+ */
+class AirlineFlights {
+    final ArrayList<Flight> flights = new ArrayList<>();
+    private int removed;
+
+    void add(Flight flight) {
+        flights.add(flight);
+    }
+
+    /**
+     * Note that one flight of the list was marked removed
+     */
+    void markRemoved() {
+        if (++removed * 2 > flights.size()) {
+            flights.removeIf(flight -> flight.removed);
+            removed = 0;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Async Output Stream - Double-buffered output drained by a writer thread
+ * The command thread fills one buffer while a writer thread writes the
+ * other to the channel. A full buffer, or flush(), hands the filled buffer
+ * to the writer and continues in the other one, so the command thread only
+ * waits when it fills a buffer before the writer has finished the previous
+ * one (output faster than the device takes it).
+ *
+ * Bytes reach the channel in write order: there are only two buffers, and
+ * a buffer is handed off only after the writer has returned the other.
+ * flush() does not wait for the write; close() writes everything
+ * outstanding, waits for it, and closes the channel.
+ *
+ * A write error on the writer thread is kept and thrown on the command
+ * thread by the next hand-off, flush() or close().
+ */
+public class AsyncOutputStream extends OutputStream {
+    private final WritableByteChannel channel;
+    private final Thread writer;
+    private ByteBuffer filling;     // Command thread only
+
+    // Guarded by this
+    private ByteBuffer ready;       // Handed off, not yet taken by the writer
+    private ByteBuffer spare;       // Written out, free for the command thread
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * Stream to channel through two buffers of bufferSize bytes
+     */
+    public AsyncOutputStream(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.filling = ByteBuffer.allocate(Math.max(64, bufferSize));
+        this.spare = ByteBuffer.allocate(filling.capacity());
+        this.writer = new Thread(this::writerLoop, "gator-output-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // ---- Command thread ----
+
+    @Override
+    public void write(int b) throws IOException {
+        if (!filling.hasRemaining()) {
+            handOff();
+        }
+        filling.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!filling.hasRemaining()) {
+                handOff();
+            }
+            int n = Math.min(length, filling.remaining());
+            filling.put(bytes, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * Hand the buffered bytes to the writer thread (without waiting for them)
+     */
+    @Override
+    public void flush() throws IOException {
+        if (filling.position() > 0) {
+            handOff();
+        } else {
+            synchronized (this) {
+                throwFailure();
+            }
+        }
+    }
+
+    /**
+     * Write everything outstanding, stop the writer and close the channel
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+        }
+        try {
+            if (filling.position() > 0) {
+                handOff();
+            }
+        } finally {
+            synchronized (this) {
+                closed = true;
+                notifyAll();
+            }
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channel.close();
+        }
+        synchronized (this) {
+            throwFailure();
+        }
+    }
+
+    /**
+     * Pass the filled buffer to the writer and take the free one, waiting
+     * for the writer to finish with it if needed
+     */
+    private synchronized void handOff() throws IOException {
+        try {
+            while (spare == null) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting for the output writer");
+        }
+        throwFailure();
+        filling.flip();
+        ready = filling;
+        filling = spare;
+        spare = null;
+        notifyAll();
+    }
+
+    private void throwFailure() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // ---- Writer thread ----
+
+    private void writerLoop() {
+        while (true) {
+            ByteBuffer buffer;
+            synchronized (this) {
+                while (ready == null && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (ready == null) {
+                    return;   // Closed and drained
+                }
+                buffer = ready;
+                ready = null;
+            }
+
+            IOException error = null;
+            if (failure == null) {
+                try {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+
+            synchronized (this) {
+                if (error != null) {
+                    failure = error;
+                }
+                buffer.clear();
+                spare = buffer;
+                notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Binary Commands - Pre-parsed fixed-width command format
+ * Stream: the 4-byte magic "GATC", then one record per command:
+ *   opcode byte, then ARITY[opcode] big-endian int32 parameters
+ * Commands with an optional parameter have one opcode per form
+ * (SubmitFlight with/without class, AddRunways with/without mask).
+ *
+ * Reader decodes straight from a direct ByteBuffer refilled from a
+ * channel into a caller-supplied int[]: no line, string or parameter
+ * objects per command.
+ *
+ * Usage (converter): java BinaryCommands <input.txt> <output.bin>
+ *   Encodes a text command file; lines that are not valid commands are
+ *   reported on stderr and left out.
+ */
+public class BinaryCommands {
+    static final byte[] MAGIC = {'G', 'A', 'T', 'C'};
+    static final int MAX_ARITY = 6;
+
+    static final int INITIALIZE = 1;
+    static final int SUBMIT_FLIGHT = 2;
+    static final int SUBMIT_FLIGHT_CLASS = 3;
+    static final int CANCEL_FLIGHT = 4;
+    static final int REPRIORITIZE = 5;
+    static final int ADD_RUNWAYS = 6;
+    static final int ADD_RUNWAYS_MASK = 7;
+    static final int GROUND_HOLD = 8;
+    static final int PRINT_ACTIVE = 9;
+    static final int PRINT_SCHEDULE = 10;
+    static final int TICK = 11;
+    static final int RUNWAY_STATS = 12;
+    static final int CLOSE_RUNWAY = 13;
+    static final int REOPEN_RUNWAY = 14;
+    static final int SCHEDULE_MAINTENANCE = 15;
+    static final int QUIT = 16;
+    static final int FLIGHT_STATUS = 17;
+    static final int AIRLINE_SCHEDULE = 18;
+    static final int RUNWAY_SCHEDULE = 19;
+
+    // Command name and parameter count per opcode
+    static final String[] NAMES = {
+        null, "Initialize", "SubmitFlight", "SubmitFlight", "CancelFlight", "Reprioritize",
+        "AddRunways", "AddRunways", "GroundHold", "PrintActive", "PrintSchedule", "Tick",
+        "RunwayStats", "CloseRunway", "ReopenRunway", "ScheduleMaintenance", "Quit",
+        "FlightStatus", "AirlineSchedule", "RunwaySchedule"
+    };
+    static final int[] ARITY = {0, 1, 5, 6, 2, 3, 2, 3, 3, 0, 2, 1, 0, 2, 2, 4, 0, 1, 1, 1};
+
+    /**
+     * Reads command records from a channel
+     */
+    public static class Reader {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer;
+        private boolean eof;
+
+        /**
+         * Reads and checks the magic
+         */
+        public Reader(ReadableByteChannel channel, int bufferSize) throws IOException {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(Math.max(64, bufferSize));
+            buffer.flip();  // Start empty
+            if (!fill(MAGIC.length)) {
+                throw new IOException("not a binary command stream");
+            }
+            for (byte b : MAGIC) {
+                if (buffer.get() != b) {
+                    throw new IOException("not a binary command stream");
+                }
+            }
+        }
+
+        /**
+         * Read the next command's parameters into params
+         * Returns its opcode, or 0 at end of stream
+         */
+        public int next(int[] params) throws IOException {
+            if (!fill(1)) {
+                return 0;
+            }
+            int opcode = buffer.get();
+            if (opcode <= 0 || opcode >= NAMES.length) {
+                throw new IOException("unknown command opcode " + opcode);
+            }
+            int arity = ARITY[opcode];
+            if (!fill(4 * arity)) {
+                throw new IOException("truncated " + NAMES[opcode] + " command");
+            }
+            for (int i = 0; i < arity; i++) {
+                params[i] = buffer.getInt();
+            }
+            return opcode;
+        }
+
+        /**
+         * Make at least n bytes available; false if the stream ends first
+         */
+        private boolean fill(int n) throws IOException {
+            if (buffer.remaining() >= n) {
+                return true;
+            }
+            buffer.compact();
+            while (!eof && buffer.position() < n) {
+                if (channel.read(buffer) < 0) {
+                    eof = true;
+                }
+            }
+            buffer.flip();
+            return buffer.remaining() >= n;
+        }
+    }
+
+    /**
+     * Encode one command in the text grammar
+     * Returns false (writing nothing) if it is not a valid command
+     */
+    static boolean encode(String command, DataOutputStream out) throws IOException {
+        int openParen = command.indexOf('(');
+        int closeParen = command.lastIndexOf(')');
+        if (openParen == -1 || closeParen == -1) {
+            return false;
+        }
+        String name = command.substring(0, openParen).trim();
+        String paramsStr = command.substring(openParen + 1, closeParen).trim();
+
+        int[] params = new int[0];
+        try {
+            if (!paramsStr.isEmpty()) {
+                params = Arrays.stream(paramsStr.split(","))
+                               .mapToInt(p -> Integer.parseInt(p.trim())).toArray();
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+
+        // Longest form the parameters fill; extra parameters are ignored,
+        // as by the text parser
+        int opcode = 0;
+        for (int op = 1; op < NAMES.length; op++) {
+            if (NAMES[op].equals(name) && ARITY[op] <= params.length
+                && (opcode == 0 || ARITY[op] > ARITY[opcode])) {
+                opcode = op;
+            }
+        }
+        if (opcode == 0) {
+            return false;
+        }
+
+        out.writeByte(opcode);
+        for (int i = 0; i < ARITY[opcode]; i++) {
+            out.writeInt(params[i]);
+        }
+        return true;
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: java BinaryCommands <input.txt> <output.bin>");
+            System.exit(1);
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                 new FileInputStream(args[0]), StandardCharsets.UTF_8));
+             DataOutputStream out = new DataOutputStream(
+                 new BufferedOutputStream(new FileOutputStream(args[1]), 64 * 1024))) {
+            out.write(MAGIC);
+            int commands = 0;
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (encode(line, out)) {
+                    commands++;
+                } else {
+                    System.err.println("Skipped line " + lineNumber + ": " + line);
+                }
+            }
+            System.err.println(commands + " commands written to " + args[1]);
+        } catch (IOException e) {
+            System.err.println("Error: IO exception - " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,359 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Binary Output - Compact record encoding of the scheduler output
+ * Stream: the 4-byte magic "GATB", then one record per output line:
+ *   varint length, type byte, payload (length counts type + payload)
+ *
+ * Payloads (all numbers varints):
+ *   TEXT            UTF-8 bytes of the line
+ *   SCHEDULED       id, eta
+ *   PENDING         id
+ *   LANDED          id, time
+ *   UPDATED_ETAS    count, then id, eta per entry
+ *   SCHEDULE_ENTRY  id
+ *   ACTIVE_FLIGHT   id, airline, runway, start, eta
+ * Flight IDs are zigzag deltas from the previous flight ID in the stream,
+ * and times (ETAs, start times) zigzag deltas from the previous time, so
+ * the usual small steps take one or two bytes.
+ *
+ * Records are built in a reusable scratch array and copied into a reusable
+ * output buffer, which goes to the stream when full or on flush(). Write
+ * errors are kept and rethrown by flush(), as the sink methods cannot throw.
+ *
+ * Usage (decoder): java BinaryOutput [file]
+ *   Prints the text output a binary stream (file or stdin) encodes,
+ *   exactly as the text output mode would have written it.
+ */
+public class BinaryOutput implements OutputSink {
+    static final byte[] MAGIC = {'G', 'A', 'T', 'B'};
+
+    static final int TEXT = 1;
+    static final int SCHEDULED = 2;
+    static final int PENDING = 3;
+    static final int LANDED = 4;
+    static final int UPDATED_ETAS = 5;
+    static final int SCHEDULE_ENTRY = 6;
+    static final int ACTIVE_FLIGHT = 7;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int buffered;
+    private byte[] record = new byte[64];
+    private int length;
+    private IOException error;
+
+    // Delta bases, mirrored by the decoder
+    private int lastID;
+    private int lastTime;
+
+    public BinaryOutput(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[Math.max(64, bufferSize)];
+        System.arraycopy(MAGIC, 0, buffer, 0, MAGIC.length);
+        this.buffered = MAGIC.length;
+    }
+
+    @Override
+    public void line(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        begin(TEXT);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, record, length, bytes.length);
+        length += bytes.length;
+        end();
+    }
+
+    @Override
+    public void scheduled(int flightID, int eta) {
+        begin(SCHEDULED);
+        id(flightID);
+        time(eta);
+        end();
+    }
+
+    @Override
+    public void pending(int flightID) {
+        begin(PENDING);
+        id(flightID);
+        end();
+    }
+
+    @Override
+    public void landed(int flightID, int time) {
+        begin(LANDED);
+        id(flightID);
+        time(time);
+        end();
+    }
+
+    @Override
+    public void updatedETAs(int[] flightIDs, int[] etas, int count) {
+        begin(UPDATED_ETAS);
+        varint(count);
+        for (int i = 0; i < count; i++) {
+            id(flightIDs[i]);
+            time(etas[i]);
+        }
+        end();
+    }
+
+    @Override
+    public void scheduleEntry(int flightID) {
+        begin(SCHEDULE_ENTRY);
+        id(flightID);
+        end();
+    }
+
+    @Override
+    public void activeFlight(int flightID, int airlineID, int runwayID, int startTime, int eta) {
+        begin(ACTIVE_FLIGHT);
+        id(flightID);
+        varint(zigzag(airlineID));
+        varint(zigzag(runwayID));
+        time(startTime);
+        time(eta);
+        end();
+    }
+
+    @Override
+    public List<String> take() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Bytes waiting in the output buffer
+     */
+    public int buffered() {
+        return buffered;
+    }
+
+    /**
+     * Write the buffer to the stream and flush it
+     * Throws the first write error seen since construction
+     */
+    public void flush() throws IOException {
+        drain();
+        if (error == null) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void begin(int type) {
+        length = 0;
+        record[length++] = (byte) type;
+    }
+
+    private void id(int flightID) {
+        varint(zigzag(flightID - lastID));
+        lastID = flightID;
+    }
+
+    private void time(int time) {
+        varint(zigzag(time - lastTime));
+        lastTime = time;
+    }
+
+    private void varint(int value) {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            record[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        record[length++] = (byte) value;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > record.length) {
+            record = Arrays.copyOf(record, Math.max(length + extra, record.length * 2));
+        }
+    }
+
+    /**
+     * Prefix the record with its length and copy it to the output buffer
+     */
+    private void end() {
+        if (buffered + 5 + length > buffer.length) {
+            drain();
+        }
+        int value = length;
+        while ((value & ~0x7F) != 0) {
+            buffer[buffered++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[buffered++] = (byte) value;
+
+        if (length > buffer.length - buffered) {
+            // Larger than the buffer: straight to the stream
+            drain();
+            write(record, length);
+        } else {
+            System.arraycopy(record, 0, buffer, buffered, length);
+            buffered += length;
+        }
+    }
+
+    private void drain() {
+        write(buffer, buffered);
+        buffered = 0;
+    }
+
+    private void write(byte[] bytes, int count) {
+        if (error != null || count == 0) {
+            return;
+        }
+        try {
+            out.write(bytes, 0, count);
+        } catch (IOException e) {
+            error = e;
+        }
+    }
+
+    /**
+     * Reads a binary stream back one record at a time
+     */
+    public static class Decoder {
+        private final DataInputStream in;
+        private byte[] record = new byte[64];
+        private int position;
+        private int[] ids = new int[16];
+        private int[] etas = new int[16];
+
+        // Delta bases, as kept by the encoder
+        private int lastID;
+        private int lastTime;
+
+        /**
+         * Reads and checks the magic
+         */
+        public Decoder(InputStream in) throws IOException {
+            this.in = new DataInputStream(in);
+            byte[] magic = new byte[MAGIC.length];
+            this.in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("not a binary scheduler output stream");
+            }
+        }
+
+        /**
+         * Replay the next record into sink; false at end of stream
+         */
+        public boolean next(OutputSink sink) throws IOException {
+            int first = in.read();
+            if (first < 0) {
+                return false;
+            }
+            int length = first & 0x7F;
+            for (int shift = 7, b = first; (b & 0x80) != 0; shift += 7) {
+                b = in.readUnsignedByte();
+                length |= (b & 0x7F) << shift;
+            }
+            if (length > record.length) {
+                record = new byte[Math.max(length, record.length * 2)];
+            }
+            in.readFully(record, 0, length);
+            position = 1;
+
+            switch (record[0]) {
+                case TEXT:
+                    sink.line(new String(record, 1, length - 1, StandardCharsets.UTF_8));
+                    break;
+                case SCHEDULED:
+                    sink.scheduled(id(), time());
+                    break;
+                case PENDING:
+                    sink.pending(id());
+                    break;
+                case LANDED:
+                    sink.landed(id(), time());
+                    break;
+                case UPDATED_ETAS:
+                    int count = varint();
+                    if (count > ids.length) {
+                        ids = new int[count];
+                        etas = new int[count];
+                    }
+                    for (int i = 0; i < count; i++) {
+                        ids[i] = id();
+                        etas[i] = time();
+                    }
+                    sink.updatedETAs(ids, etas, count);
+                    break;
+                case SCHEDULE_ENTRY:
+                    sink.scheduleEntry(id());
+                    break;
+                case ACTIVE_FLIGHT:
+                    int flightID = id();
+                    int airlineID = unzigzag(varint());
+                    int runwayID = unzigzag(varint());
+                    int startTime = time();
+                    sink.activeFlight(flightID, airlineID, runwayID, startTime, time());
+                    break;
+                default:
+                    break;  // Unknown record type: skipped by its length
+            }
+            return true;
+        }
+
+        private int varint() {
+            int value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = record[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        private int id() {
+            lastID += unzigzag(varint());
+            return lastID;
+        }
+
+        private int time() {
+            lastTime += unzigzag(varint());
+            return lastTime;
+        }
+
+        private static int unzigzag(int value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+
+    public static void main(String[] args) {
+        try (InputStream in = new BufferedInputStream(
+                 args.length > 0 ? new FileInputStream(args[0]) : System.in, 64 * 1024)) {
+            Decoder decoder = new Decoder(in);
+            TextOutput text = new TextOutput();
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(System.out));
+            while (decoder.next(text)) {
+                for (String line : text.take()) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+            writer.flush();
+        } catch (EOFException e) {
+            System.err.println("Error: truncated binary output stream");
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+import java.util.*;
+
+/**
+ * Bucket Pending Queue - Priority buckets for a small priority range
+ * When the priorities of a pass span fewer than MAX_RANGE values
+ * (-Dgator.bucket.maxRange=N, default 1024), the flights are distributed
+ * into one bucket per priority by a stable counting pass, highest priority
+ * first, with no comparisons between flights of different priorities.
+ * Each bucket is put in (submitTime, flightID) order only when extractMax
+ * reaches it; the sort is adaptive, so a bucket that arrives mostly in
+ * that order costs little more than a scan.
+ *
+ * Passes with a wider priority range go through the fallback queue, so
+ * this queue can stand in front of any other one.
+ *
+ * Key Operations:
+ * - insert: O(1)
+ * - first extractMax: O(n + range)
+ * - extractMax: O(1), plus the bucket's sort on reaching a new bucket
+ *   (O(m) when already ordered, O(m log m) at worst)
+ */
+public class BucketPendingQueue implements PendingQueue {
+    static final int MAX_RANGE = Integer.getInteger("gator.bucket.maxRange", 1024);
+
+    // Order inside one bucket: submitTime ASC, flightID ASC
+    private static final Comparator<Flight> BUCKET_ORDER = (a, b) -> {
+        if (a.submitTime != b.submitTime) {
+            return Integer.compare(a.submitTime, b.submitTime);
+        }
+        return Integer.compare(a.flightID, b.flightID);
+    };
+
+    private Flight[] flights = new Flight[64];  // Insertion order
+    private int size;
+    private Flight[] buckets = new Flight[64];  // Grouped by bucket, highest priority first
+    private int[] bucketEnd = new int[16];      // End of each bucket in buckets
+    private int bucketCount;
+    private int bucket;                         // Bucket being drained
+    private int sortedTo;                       // End of the buckets sorted so far
+    private int next;                           // Read position in buckets
+    private boolean ordered;                    // Bucketed, or handed to the fallback
+    private final PendingQueue fallback;
+    private boolean useFallback;
+
+    /**
+     * Bucket queue over a PairingHeap fallback
+     */
+    public BucketPendingQueue() {
+        this(new PairingHeap());
+    }
+
+    /**
+     * Bucket queue taking wide-range passes to the given queue
+     */
+    public BucketPendingQueue(PendingQueue fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * Number of flights not yet extracted
+     */
+    @Override
+    public int size() {
+        return useFallback ? fallback.size() : size - next;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return useFallback ? fallback.isEmpty() : next == size;
+    }
+
+    /**
+     * Add a flight (before the first extractMax since clear)
+     */
+    @Override
+    public void insert(Flight flight) {
+        if (size == flights.length) {
+            flights = Arrays.copyOf(flights, size * 2);
+        }
+        flights[size++] = flight;
+    }
+
+    /**
+     * Next flight in greedy order
+     */
+    @Override
+    public Flight extractMax() {
+        if (!ordered) {
+            order();
+        }
+        if (useFallback) {
+            return fallback.extractMax();
+        }
+        if (next == size) {
+            return null;
+        }
+        if (next == sortedTo) {
+            // Entering the next non-empty bucket
+            while (bucketEnd[bucket] == next) {
+                bucket++;
+            }
+            sortedTo = bucketEnd[bucket];
+            if (sortedTo - next > 1) {
+                Arrays.sort(buckets, next, sortedTo, BUCKET_ORDER);
+            }
+        }
+        return buckets[next++];
+    }
+
+    /**
+     * Remove all flights
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(flights, 0, size, null);
+        if (!useFallback) {
+            Arrays.fill(buckets, 0, size, null);
+        }
+        size = 0;
+        next = 0;
+        bucket = 0;
+        sortedTo = 0;
+        bucketCount = 0;
+        ordered = false;
+        useFallback = false;
+        fallback.clear();
+    }
+
+    private void order() {
+        ordered = true;
+        if (size == 0) {
+            return;
+        }
+
+        int minPriority = Integer.MAX_VALUE, maxPriority = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            minPriority = Math.min(minPriority, flights[i].priority);
+            maxPriority = Math.max(maxPriority, flights[i].priority);
+        }
+        if ((long) maxPriority - minPriority >= MAX_RANGE) {
+            useFallback = true;
+            for (int i = 0; i < size; i++) {
+                fallback.insert(flights[i]);
+            }
+            return;
+        }
+
+        // Counting pass: bucket k holds priority maxPriority - k
+        bucketCount = maxPriority - minPriority + 1;
+        if (bucketEnd.length < bucketCount) {
+            bucketEnd = new int[Math.max(bucketCount, bucketEnd.length * 2)];
+        }
+        Arrays.fill(bucketEnd, 0, bucketCount, 0);
+        for (int i = 0; i < size; i++) {
+            bucketEnd[maxPriority - flights[i].priority]++;
+        }
+        int end = 0;
+        for (int k = 0; k < bucketCount; k++) {
+            end += bucketEnd[k];
+            bucketEnd[k] = end;
+        }
+
+        // Place from the back so each bucket keeps insertion order
+        if (buckets.length < size) {
+            buckets = new Flight[Math.max(size, buckets.length * 2)];
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            Flight flight = flights[i];
+            buckets[--bucketEnd[maxPriority - flight.priority]] = flight;
+        }
+        // bucketEnd[k] now holds the start of bucket k: shift to ends
+        System.arraycopy(bucketEnd, 1, bucketEnd, 0, bucketCount - 1);
+        bucketEnd[bucketCount - 1] = size;
+    }
+}
@@ -0,0 +1,144 @@
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Command Shipper - Streams the primary's applied commands to a standby
+ * The scheduler is deterministic, so a SchedulerStandby that applies the
+ * same commands in the same order holds the same state. Tick parameters
+ * carry the scheduler's time, so the log needs no other timestamps.
+ *
+ * Stream (text, UTF-8): a header line
+ *   GATOR-LOG 1 <scheduler options>
+ * then one line per applied command, numbered from 1:
+ *   <sequence> <command>
+ *
+ * Shipping is asynchronous: ship() only queues the command line on the
+ * command thread, and a sender thread drains everything queued since its
+ * last write into one batch and one socket write. An idle primary sends
+ * each command at once; a busy one sends large batches. The command thread
+ * only blocks if the sender falls QUEUED_COMMANDS behind
+ * (-Dgator.replication.queue=N, default 65536).
+ *
+ * If the standby cannot be reached any more, the sender reports it on
+ * stderr once and the primary carries on without replication.
+ */
+public class CommandShipper implements Closeable {
+    static final String HEADER = "GATOR-LOG 1 ";
+    private static final int QUEUED_COMMANDS = Integer.getInteger("gator.replication.queue", 65536);
+    private static final int MAX_BATCH = 4096;
+
+    private final Socket socket;
+    private final String target;
+    private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUED_COMMANDS);
+    private final Thread sender;
+    private volatile IOException failure;
+    private boolean closed;
+
+    // Marks the end of the log (compared by identity)
+    private static final String STOP = new String("STOP");
+
+    /**
+     * Connect to a standby and send the header
+     * options must match the standby's own scheduler options
+     */
+    public CommandShipper(String host, int port, String options) throws IOException {
+        this.target = host + ":" + port;
+        this.socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        OutputStream out = socket.getOutputStream();
+        out.write((HEADER + options + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+
+        this.sender = new Thread(this::senderLoop, "gator-replication-sender");
+        this.sender.setDaemon(true);
+        this.sender.start();
+    }
+
+    /**
+     * Queue an applied command (called on the command thread, in apply order)
+     */
+    public void ship(String command) {
+        if (failure != null) {
+            return;
+        }
+        put(command);
+    }
+
+    private void put(String item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Send everything queued, then end the log
+     * The standby takes the end of the log as the primary going away.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        put(STOP);
+        try {
+            sender.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        socket.close();
+    }
+
+    // ---- Sender thread ----
+
+    private void senderLoop() {
+        List<String> batch = new ArrayList<>(MAX_BATCH);
+        StringBuilder text = new StringBuilder();
+        long sequence = 0;
+        long sent = 0;     // Commands the standby has been sent in full
+        try {
+            Writer out = new OutputStreamWriter(
+                new BufferedOutputStream(socket.getOutputStream(), 64 * 1024), StandardCharsets.UTF_8);
+            boolean stop = false;
+            while (!stop) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+
+                text.setLength(0);
+                for (String command : batch) {
+                    if (command == STOP) {
+                        stop = true;
+                        break;
+                    }
+                    text.append(++sequence).append(' ').append(command).append('\n');
+                }
+                batch.clear();
+                if (failure == null) {
+                    try {
+                        out.write(text.toString());
+                        out.flush();
+                        sent = sequence;
+                    } catch (IOException e) {
+                        // Keep draining so ship() never blocks on a dead standby
+                        failure = e;
+                        System.err.println("Warning: replication to " + target + " stopped after "
+                                           + sent + " commands - " + e.getMessage());
+                    }
+                }
+            }
+            if (failure == null) {
+                socket.shutdownOutput();
+            }
+        } catch (IOException e) {
+            failure = e;
+            System.err.println("Warning: replication to " + target + " stopped - " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
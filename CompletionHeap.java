@@ -7,11 +7,13 @@
  * - extractMin: O(log n)
  * - findMin: O(1)
  * - extractAllUpTo(t): O(k log n) where k is number of completions
+ * - markRemoved: O(1) amortized (tombstone, compacted by ratio in O(n))
  */
-public class CompletionHeap {
+public class CompletionHeap implements Timetable {
     private Flight[] heap;
-    private int size;
+    private int size;           // Entries including tombstones
     private int capacity;
+    private int tombstones;
     
     /**
      * Constructor
@@ -26,14 +28,14 @@ public class CompletionHeap {
      * Check if heap is empty
      */
     public boolean isEmpty() {
-        return size == 0;
+        return size == tombstones;
     }
     
     /**
-     * Get size of heap
+     * Get size of heap (live flights)
      */
     public int size() {
-        return size;
+        return size - tombstones;
     }
     
     /**
@@ -102,6 +104,9 @@ public class CompletionHeap {
         }
         
         int index = flight.completionHeapIndex;
+        if (flight.removed) {
+            tombstones--;
+        }
         
         // Replace with last element
         heap[index] = heap[size];
@@ -127,9 +132,14 @@ public class CompletionHeap {
     public java.util.List<Flight> extractAllUpTo(int t) {
         java.util.List<Flight> completed = new java.util.ArrayList<>();
         
-        // Extract all flights with ETA <= t
-        while (!isEmpty() && heap[1].ETA <= t) {
-            completed.add(extractMin());
+        // Extract all flights with ETA <= t, dropping tombstones
+        while (size > 0 && heap[1].ETA <= t) {
+            Flight flight = extractMin();
+            if (flight.removed) {
+                tombstones--;
+            } else {
+                completed.add(flight);
+            }
         }
         
         // Sort by (ETA, flightID) as required by spec
@@ -151,7 +161,7 @@ public class CompletionHeap {
         // Scan entire heap (can't avoid O(n) for range query)
         for (int i = 1; i <= size; i++) {
             Flight flight = heap[i];
-            if (flight.ETA >= t1 && flight.ETA <= t2) {
+            if (flight.ETA >= t1 && flight.ETA <= t2 && !flight.removed) {
                 // Only include scheduled flights that haven't started
                 if (flight.state == FlightState.SCHEDULED && flight.startTime > currentTime) {
                     result.add(flight);
@@ -245,6 +255,80 @@ public class CompletionHeap {
             heap[i] = null;
         }
         size = 0;
+        tombstones = 0;
+    }
+    
+    /**
+     * Leave a removed flight in place; compact once tombstones pass the ratio
+     */
+    public void markRemoved(Flight flight) {
+        int index = flight.completionHeapIndex;
+        if (index <= 0 || index > size || heap[index] != flight) {
+            return; // Not in heap
+        }
+        tombstones++;
+        if (tombstones > size * MAX_TOMBSTONE_RATIO) {
+            compact();
+        }
+    }
+    
+    /**
+     * Drop every tombstone and reheapify: O(n)
+     */
+    private void compact() {
+        int live = 0;
+        for (int i = 1; i <= size; i++) {
+            Flight flight = heap[i];
+            if (flight.removed) {
+                flight.completionHeapIndex = -1;
+            } else {
+                heap[++live] = flight;
+                flight.completionHeapIndex = live;
+            }
+        }
+        java.util.Arrays.fill(heap, live + 1, size + 1, null);
+        size = live;
+        tombstones = 0;
+        buildHeap();
+    }
+    
+    /**
+     * Copy the heap with every flight replaced by remap(flight)
+     * The array layout is kept, so no comparisons are needed: O(n).
+     * Flights remapped to null are left out (then the copy is reheapified).
+     */
+    public CompletionHeap copy(java.util.function.UnaryOperator<Flight> remap) {
+        CompletionHeap copy = new CompletionHeap(capacity);
+        for (int i = 1; i <= size; i++) {
+            Flight flight = remap.apply(heap[i]);
+            if (flight != null) {
+                copy.heap[++copy.size] = flight;
+                flight.completionHeapIndex = copy.size;
+            }
+        }
+        if (copy.size < size) {
+            copy.buildHeap();
+        }
+        return copy;
+    }
+    
+    /**
+     * Replace the contents with the flights having ETA > 0: O(n)
+     */
+    public void build(java.util.Collection<Flight> flights) {
+        clear();
+        for (Flight flight : flights) {
+            if (flight.ETA <= 0) {
+                continue;
+            }
+            if (size >= capacity) {
+                capacity = capacity * 2;
+                heap = java.util.Arrays.copyOf(heap, capacity + 1);
+            }
+            heap[++size] = flight;
+            flight.completionHeapIndex = size;
+        }
+        buildHeap();
     }
     
     /**
@@ -0,0 +1,374 @@
+/**
+ * D-ary Min-Heap Implementation for Flight Completions (Timetable)
+ * Cache-friendly variant of CompletionHeap
+ *
+ * The (ETA, flightID) ordering key of every entry is packed into a long and
+ * stored inline in a primitive array next to the flight handle, so sifting
+ * compares array slots instead of dereferencing Flight objects. A wider
+ * fan-out (4 or 8) makes the tree shallower and keeps all children of a
+ * node in one or two cache lines.
+ *
+ * Key Operations:
+ * - insert: O(log_d n)
+ * - extractMin: O(d log_d n)
+ * - findMin: O(1)
+ * - extractAllUpTo(t): O(k d log_d n) where k is number of completions
+ * - markRemoved: O(1) amortized (tombstone, compacted by ratio in O(n))
+ */
+public class DaryCompletionHeap implements Timetable {
+    private long[] keys;      // Packed (ETA, flightID) keys, 1-indexed
+    private Flight[] heap;    // Flight handles, parallel to keys
+    private int size;         // Entries including tombstones
+    private int capacity;
+    private int tombstones;
+    private final int arity;
+    private final int shift;  // log2(arity)
+
+    /**
+     * Constructor
+     * Arity must be a power of two between 2 and 16
+     */
+    public DaryCompletionHeap(int capacity, int arity) {
+        if (arity < 2 || arity > 16 || Integer.bitCount(arity) != 1) {
+            throw new IllegalArgumentException("Heap arity must be 2, 4, 8 or 16: " + arity);
+        }
+        this.arity = arity;
+        this.shift = Integer.numberOfTrailingZeros(arity);
+        this.capacity = Math.max(capacity, 1);
+        this.keys = new long[this.capacity + 1]; // 1-indexed like CompletionHeap
+        this.heap = new Flight[this.capacity + 1];
+        this.size = 0;
+    }
+
+    /**
+     * Check if heap is empty
+     */
+    public boolean isEmpty() {
+        return size == tombstones;
+    }
+
+    /**
+     * Get size of heap (live flights)
+     */
+    public int size() {
+        return size - tombstones;
+    }
+
+    /**
+     * Get the fan-out of the heap
+     */
+    public int arity() {
+        return arity;
+    }
+
+    /**
+     * Insert a flight into the heap
+     */
+    public void insert(Flight flight) {
+        if (flight.ETA <= 0) {
+            return; // Don't insert pending/invalid flights
+        }
+
+        if (size >= capacity) {
+            // Expand capacity
+            capacity = capacity * 2;
+            keys = java.util.Arrays.copyOf(keys, capacity + 1);
+            heap = java.util.Arrays.copyOf(heap, capacity + 1);
+        }
+
+        size++;
+        siftUp(size, packKey(flight.ETA, flight.flightID), flight);
+    }
+
+    /**
+     * Get the flight with earliest ETA (without removing)
+     */
+    public Flight findMin() {
+        if (size == 0) {
+            return null;
+        }
+        return heap[1];
+    }
+
+    /**
+     * Extract and return the flight with earliest ETA
+     */
+    public Flight extractMin() {
+        if (size == 0) {
+            return null;
+        }
+
+        Flight min = heap[1];
+        removeAt(1);
+        min.completionHeapIndex = -1;
+        return min;
+    }
+
+    /**
+     * Remove a specific flight from the heap
+     * Used when a flight is cancelled or grounded
+     */
+    public void delete(Flight flight) {
+        int index = flight.completionHeapIndex;
+        if (index <= 0 || index > size || heap[index] != flight) {
+            return; // Not in heap
+        }
+        if (flight.removed) {
+            tombstones--;
+        }
+
+        removeAt(index);
+        flight.completionHeapIndex = -1;
+    }
+
+    /**
+     * Extract all flights with ETA <= t
+     * Returns list sorted by (ETA, flightID); extraction order already is
+     */
+    public java.util.List<Flight> extractAllUpTo(int t) {
+        java.util.List<Flight> completed = new java.util.ArrayList<>();
+
+        while (size > 0 && keyTime(keys[1]) <= t) {
+            Flight flight = extractMin();
+            if (flight.removed) {
+                tombstones--;  // Tombstone reached the top
+            } else {
+                completed.add(flight);
+            }
+        }
+
+        return completed;
+    }
+
+    /**
+     * Get all flights with ETA in range [t1, t2] without removing
+     * Used for PrintSchedule operation
+     */
+    public java.util.List<Flight> getFlightsInRange(int t1, int t2, int currentTime) {
+        java.util.List<Flight> result = new java.util.ArrayList<>();
+
+        // Scan the key array (can't avoid O(n) for range query), only
+        // touching the flight when its packed ETA is inside the range
+        for (int i = 1; i <= size; i++) {
+            int eta = keyTime(keys[i]);
+            if (eta >= t1 && eta <= t2) {
+                Flight flight = heap[i];
+                // Only include scheduled flights that haven't started
+                if (flight.state == FlightState.SCHEDULED && flight.startTime > currentTime
+                    && !flight.removed) {
+                    result.add(flight);
+                }
+            }
+        }
+
+        // Sort by (ETA, flightID)
+        result.sort((a, b) -> Long.compare(packKey(a.ETA, a.flightID), packKey(b.ETA, b.flightID)));
+
+        return result;
+    }
+
+    /**
+     * Clear the heap
+     */
+    public void clear() {
+        for (int i = 1; i <= size; i++) {
+            heap[i].completionHeapIndex = -1;
+            heap[i] = null;
+        }
+        size = 0;
+        tombstones = 0;
+    }
+
+    /**
+     * Leave a removed flight in place; compact once tombstones pass the ratio
+     */
+    public void markRemoved(Flight flight) {
+        int index = flight.completionHeapIndex;
+        if (index <= 0 || index > size || heap[index] != flight) {
+            return; // Not in heap
+        }
+        tombstones++;
+        if (tombstones > size * MAX_TOMBSTONE_RATIO) {
+            compact();
+        }
+    }
+
+    /**
+     * Drop every tombstone and reheapify: O(n)
+     */
+    private void compact() {
+        int live = 0;
+        for (int i = 1; i <= size; i++) {
+            Flight flight = heap[i];
+            if (flight.removed) {
+                flight.completionHeapIndex = -1;
+            } else {
+                live++;
+                keys[live] = keys[i];
+                heap[live] = flight;
+                flight.completionHeapIndex = live;
+            }
+        }
+        java.util.Arrays.fill(heap, live + 1, size + 1, null);
+        size = live;
+        tombstones = 0;
+        buildHeap();
+    }
+
+    /**
+     * Copy the heap with every flight replaced by remap(flight)
+     * Keys and layout are copied as they are: O(n), no comparisons.
+     * Flights remapped to null are left out (then the copy is reheapified).
+     */
+    public DaryCompletionHeap copy(java.util.function.UnaryOperator<Flight> remap) {
+        DaryCompletionHeap copy = new DaryCompletionHeap(capacity, arity);
+        for (int i = 1; i <= size; i++) {
+            Flight flight = remap.apply(heap[i]);
+            if (flight != null) {
+                copy.size++;
+                copy.keys[copy.size] = keys[i];
+                copy.heap[copy.size] = flight;
+                flight.completionHeapIndex = copy.size;
+            }
+        }
+        if (copy.size < size) {
+            copy.buildHeap();
+        }
+        return copy;
+    }
+
+    /**
+     * Replace the contents with the flights having ETA > 0: O(n)
+     */
+    public void build(java.util.Collection<Flight> flights) {
+        clear();
+        for (Flight flight : flights) {
+            if (flight.ETA <= 0) {
+                continue;
+            }
+            if (size >= capacity) {
+                capacity = capacity * 2;
+                keys = java.util.Arrays.copyOf(keys, capacity + 1);
+                heap = java.util.Arrays.copyOf(heap, capacity + 1);
+            }
+            heap[++size] = flight;
+            flight.completionHeapIndex = size;
+        }
+        buildHeap();
+    }
+
+    /**
+     * Rebuild entire heap (used after major changes)
+     * Re-reads every key from its flight before heapifying
+     */
+    public void buildHeap() {
+        for (int i = 1; i <= size; i++) {
+            keys[i] = packKey(heap[i].ETA, heap[i].flightID);
+        }
+        for (int i = parent(size); i >= 1; i--) {
+            siftDown(i, keys[i], heap[i]);
+        }
+    }
+
+    /**
+     * Remove the entry at position i and restore heap property
+     */
+    private void removeAt(int i) {
+        long lastKey = keys[size];
+        Flight last = heap[size];
+        heap[size] = null;
+        size--;
+
+        if (i > size) {
+            return; // Removed the last slot
+        }
+
+        if (i > 1 && lastKey < keys[parent(i)]) {
+            siftUp(i, lastKey, last);
+        } else {
+            siftDown(i, lastKey, last);
+        }
+    }
+
+    /**
+     * Move a hole at position i up until key fits, then place the entry
+     */
+    private void siftUp(int i, long key, Flight flight) {
+        while (i > 1) {
+            int p = parent(i);
+            if (key >= keys[p]) {
+                break;
+            }
+            keys[i] = keys[p];
+            heap[i] = heap[p];
+            heap[i].completionHeapIndex = i;
+            i = p;
+        }
+        keys[i] = key;
+        heap[i] = flight;
+        flight.completionHeapIndex = i;
+    }
+
+    /**
+     * Move a hole at position i down until key fits, then place the entry
+     */
+    private void siftDown(int i, long key, Flight flight) {
+        while (true) {
+            int first = firstChild(i);
+            if (first > size) {
+                break;
+            }
+
+            // Find the smallest of up to arity contiguous children
+            int last = Math.min(first + arity - 1, size);
+            int smallest = first;
+            long smallestKey = keys[first];
+            for (int c = first + 1; c <= last; c++) {
+                if (keys[c] < smallestKey) {
+                    smallest = c;
+                    smallestKey = keys[c];
+                }
+            }
+
+            if (smallestKey >= key) {
+                break;
+            }
+            keys[i] = smallestKey;
+            heap[i] = heap[smallest];
+            heap[i].completionHeapIndex = i;
+            i = smallest;
+        }
+        keys[i] = key;
+        heap[i] = flight;
+        flight.completionHeapIndex = i;
+    }
+
+    /**
+     * Parent of position i (1-indexed d-ary layout)
+     */
+    private int parent(int i) {
+        return ((i - 2) >> shift) + 1;
+    }
+
+    /**
+     * First child of position i (1-indexed d-ary layout)
+     */
+    private int firstChild(int i) {
+        return ((i - 1) << shift) + 2;
+    }
+
+    /**
+     * Pack (time, id) into a long whose natural order is (time, id) order
+     * The id is sign-flipped so negative ids still sort below positive ones
+     */
+    static long packKey(int time, int id) {
+        return ((long) time << 32) | ((id ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Recover the time component of a packed key
+     */
+    static int keyTime(long key) {
+        return (int) (key >> 32);
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * D-ary Min-Heap Implementation for Runways
+ * Cache-friendly variant of RunwayHeap
+ *
+ * Each slot stores the (nextFreeTime, runwayID) key packed into a long next
+ * to the Runway handle, so comparisons never leave the key array.
+ *
+ * Key Operations:
+ * - insert: O(log_d n)
+ * - extractMin: O(d log_d n)
+ * - updateRunway: O(d log_d n)
+ * - findMin: O(1)
+ */
+public class DaryRunwayHeap implements RunwayPool {
+    private long[] keys;      // Packed (nextFreeTime, runwayID) keys, 1-indexed
+    private Runway[] heap;    // Runway handles, parallel to keys
+    private int size;
+    private int capacity;
+    private final int arity;
+    private final int shift;  // log2(arity)
+
+    /**
+     * Constructor
+     * Arity must be a power of two between 2 and 16
+     */
+    public DaryRunwayHeap(int capacity, int arity) {
+        if (arity < 2 || arity > 16 || Integer.bitCount(arity) != 1) {
+            throw new IllegalArgumentException("Heap arity must be 2, 4, 8 or 16: " + arity);
+        }
+        this.arity = arity;
+        this.shift = Integer.numberOfTrailingZeros(arity);
+        this.capacity = Math.max(capacity, 1);
+        this.keys = new long[this.capacity + 1]; // 1-indexed like RunwayHeap
+        this.heap = new Runway[this.capacity + 1];
+        this.size = 0;
+    }
+
+    /**
+     * Check if heap is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get size of heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Insert a runway into the heap
+     */
+    public void insert(Runway runway) {
+        if (size >= capacity) {
+            // Expand capacity
+            capacity = capacity * 2;
+            keys = java.util.Arrays.copyOf(keys, capacity + 1);
+            heap = java.util.Arrays.copyOf(heap, capacity + 1);
+        }
+
+        size++;
+        siftUp(size, packKey(runway.nextFreeTime, runway.runwayID), runway);
+    }
+
+    /**
+     * Get the runway with earliest available time (without removing)
+     */
+    public Runway findMin() {
+        if (size == 0) {
+            return null;
+        }
+        return heap[1];
+    }
+
+    /**
+     * Extract and return the runway with earliest available time
+     */
+    public Runway extractMin() {
+        if (size == 0) {
+            return null;
+        }
+
+        Runway min = heap[1];
+        long lastKey = keys[size];
+        Runway last = heap[size];
+        heap[size] = null;
+        size--;
+
+        if (size > 0) {
+            siftDown(1, lastKey, last);
+        }
+
+        min.heapIndex = -1;
+        return min;
+    }
+
+    /**
+     * Update runway's nextFreeTime and restore heap property
+     * Called after assigning a flight to a runway
+     */
+    public void updateRunway(Runway runway, int newNextFreeTime) {
+        runway.nextFreeTime = newNextFreeTime;
+
+        int index = runway.heapIndex;
+        if (index > 0 && index <= size && heap[index] == runway) {
+            long key = packKey(newNextFreeTime, runway.runwayID);
+            if (index > 1 && key < keys[parent(index)]) {
+                siftUp(index, key, runway);
+            } else {
+                siftDown(index, key, runway);
+            }
+        }
+    }
+
+    /**
+     * Rebuild heap from array (used when adding multiple runways)
+     */
+    public void buildHeap() {
+        for (int i = 1; i <= size; i++) {
+            keys[i] = packKey(heap[i].nextFreeTime, heap[i].runwayID);
+        }
+        for (int i = parent(size); i >= 1; i--) {
+            siftDown(i, keys[i], heap[i]);
+        }
+    }
+
+    /**
+     * Move a hole at position i up until key fits, then place the entry
+     */
+    private void siftUp(int i, long key, Runway runway) {
+        while (i > 1) {
+            int p = parent(i);
+            if (key >= keys[p]) {
+                break;
+            }
+            keys[i] = keys[p];
+            heap[i] = heap[p];
+            heap[i].heapIndex = i;
+            i = p;
+        }
+        keys[i] = key;
+        heap[i] = runway;
+        runway.heapIndex = i;
+    }
+
+    /**
+     * Move a hole at position i down until key fits, then place the entry
+     */
+    private void siftDown(int i, long key, Runway runway) {
+        while (true) {
+            int first = firstChild(i);
+            if (first > size) {
+                break;
+            }
+
+            // Find the smallest of up to arity contiguous children
+            int last = Math.min(first + arity - 1, size);
+            int smallest = first;
+            long smallestKey = keys[first];
+            for (int c = first + 1; c <= last; c++) {
+                if (keys[c] < smallestKey) {
+                    smallest = c;
+                    smallestKey = keys[c];
+                }
+            }
+
+            if (smallestKey >= key) {
+                break;
+            }
+            keys[i] = smallestKey;
+            heap[i] = heap[smallest];
+            heap[i].heapIndex = i;
+            i = smallest;
+        }
+        keys[i] = key;
+        heap[i] = runway;
+        runway.heapIndex = i;
+    }
+
+    /**
+     * Parent of position i (1-indexed d-ary layout)
+     */
+    private int parent(int i) {
+        return ((i - 2) >> shift) + 1;
+    }
+
+    /**
+     * First child of position i (1-indexed d-ary layout)
+     */
+    private int firstChild(int i) {
+        return ((i - 1) << shift) + 2;
+    }
+
+    /**
+     * Pack (time, id) into a long whose natural order is (time, id) order
+     */
+    private static long packKey(int time, int id) {
+        return ((long) time << 32) | ((id ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+}
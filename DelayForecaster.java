@@ -0,0 +1,373 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.IntStream;
+
+/**
+ * Delay Forecaster - Monte Carlo ETA percentiles for pending flights
+ * Reruns the scheduleAll greedy assignment many times with randomly
+ * perturbed durations and reports P50/P90/P99 ETAs per flight.
+ *
+ * Works on a compact, read-only copy of the schedule: the unsatisfied
+ * flights already in greedy order (priority DESC, submitTime ASC,
+ * flightID ASC) as int arrays, and the runway free times. Perturbing
+ * durations never changes that order, so each trial is a single pass
+ * over the arrays with a primitive runway heap: no Flight, Runway or
+ * boxed objects are touched or allocated per trial.
+ *
+ * Trials are split across cores with fork-join; each trial writes its
+ * ETAs into its own row of one shared int[trials * flights] matrix, so a
+ * task writes one contiguous block and no two tasks share a cache line
+ * except at block edges. The percentile pass then gathers the trials of
+ * FLIGHTS_PER_GATHER flights at a time (one cache line of each row) into
+ * per-flight buffers and sorts those. The matrix is limited to
+ * MAX_SAMPLES entries (-Dgator.forecast.maxSamples=N, default 2^28, 1 GiB).
+ *
+ * Usage (synthetic benchmark): java DelayForecaster [flights] [runways] [trials]
+ * Live schedules: AirTrafficScheduler.delayForecaster()
+ */
+public class DelayForecaster {
+    private static final int TRIALS_PER_TASK = 16;
+    private static final int FLIGHTS_PER_GATHER = 16;     // One 64-byte line of a row
+    static final int MAX_SAMPLES = Integer.getInteger("gator.forecast.maxSamples", 1 << 28);
+
+    private final int currentTime;
+    private final int[] flightIDs;     // Greedy order
+    private final int[] durations;     // Parallel to flightIDs
+    private final int[] runwayFree;    // Earliest start per runway (>= currentTime)
+    private final int[][] closureStarts;   // Per runway closure windows, null if none
+    private final int[][] closureEnds;
+    private int[] flightClasses;           // Parallel to flightIDs, null if unconstrained
+    private int[] runwayMasks;
+
+    /**
+     * Percentile ETAs per flightID, in flightID order
+     * Runway.OPEN_ENDED means the flight never got a runway (all closed)
+     */
+    public static class Forecast {
+        public final int[] flightIDs;
+        public final int[] p50;
+        public final int[] p90;
+        public final int[] p99;
+
+        Forecast(int[] flightIDs, int[] p50, int[] p90, int[] p99) {
+            this.flightIDs = flightIDs;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+        }
+
+        /**
+         * One line per flight: "[flight401, P50 4, P90 6, P99 9]"
+         */
+        public List<String> toLines() {
+            List<String> lines = new ArrayList<>(flightIDs.length);
+            for (int i = 0; i < flightIDs.length; i++) {
+                lines.add(String.format("[flight%d, P50 %s, P90 %s, P99 %s]",
+                                        flightIDs[i], eta(p50[i]), eta(p90[i]), eta(p99[i])));
+            }
+            return lines;
+        }
+        
+        private static String eta(int eta) {
+            return eta == Runway.OPEN_ENDED ? "none" : Integer.toString(eta);
+        }
+    }
+
+    /**
+     * Snapshot of a schedule: flights in greedy order plus runway free times
+     */
+    DelayForecaster(int currentTime, int[] flightIDs, int[] durations, int[] runwayFree) {
+        this(currentTime, flightIDs, durations, runwayFree,
+             new int[runwayFree.length][], new int[runwayFree.length][]);
+    }
+    
+    /**
+     * Snapshot with runway closure windows [start, end), sorted and disjoint
+     */
+    DelayForecaster(int currentTime, int[] flightIDs, int[] durations, int[] runwayFree,
+                    int[][] closureStarts, int[][] closureEnds) {
+        this.currentTime = currentTime;
+        this.flightIDs = flightIDs;
+        this.durations = durations;
+        this.runwayFree = runwayFree;
+        this.closureStarts = closureStarts;
+        this.closureEnds = closureEnds;
+    }
+
+    /**
+     * Restrict flights to runways accepting their capability class
+     */
+    void setCapabilities(int[] flightClasses, int[] runwayMasks) {
+        this.flightClasses = flightClasses;
+        this.runwayMasks = runwayMasks;
+    }
+
+    /**
+     * Number of flights in the snapshot
+     */
+    public int size() {
+        return flightIDs.length;
+    }
+
+    /**
+     * Run the forecast
+     * Each duration is scaled by a log-normal factor exp(sigma * N(0,1)),
+     * rounded, and kept at least 1. Same seed gives the same forecast.
+     * Throws IllegalArgumentException if flights * trials exceeds MAX_SAMPLES.
+     */
+    public Forecast run(int trials, double sigma, long seed) {
+        int n = flightIDs.length;
+        if (n == 0 || runwayFree.length == 0 || trials <= 0) {
+            return new Forecast(new int[0], new int[0], new int[0], new int[0]);
+        }
+        if ((long) n * trials > MAX_SAMPLES) {
+            throw new IllegalArgumentException(String.format(
+                "%d flights x %d trials exceeds the forecast limit of %d samples", n, trials, MAX_SAMPLES));
+        }
+
+        int[] etas = new int[n * trials];   // etas[trial * n + flight]
+        ForkJoinPool.commonPool().invoke(new TrialTask(etas, 0, trials, sigma, seed));
+
+        // Row of each flight in flightID order
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> flightIDs[i]));
+        int[] row = new int[n];
+        for (int i = 0; i < n; i++) {
+            row[order[i]] = i;
+        }
+
+        // Percentiles per block of flights: gather their trials, then sort each
+        int[] ids = new int[n];
+        int[] p50 = new int[n];
+        int[] p90 = new int[n];
+        int[] p99 = new int[n];
+        int blocks = (n + FLIGHTS_PER_GATHER - 1) / FLIGHTS_PER_GATHER;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            int first = block * FLIGHTS_PER_GATHER;
+            int count = Math.min(FLIGHTS_PER_GATHER, n - first);
+            int[][] samples = new int[count][trials];
+            for (int trial = 0, at = first; trial < trials; trial++, at += n) {
+                for (int j = 0; j < count; j++) {
+                    samples[j][trial] = etas[at + j];
+                }
+            }
+            for (int j = 0; j < count; j++) {
+                int f = first + j;
+                Arrays.sort(samples[j]);
+                ids[row[f]] = flightIDs[f];
+                p50[row[f]] = samples[j][rank(50, trials)];
+                p90[row[f]] = samples[j][rank(90, trials)];
+                p99[row[f]] = samples[j][rank(99, trials)];
+            }
+        });
+
+        return new Forecast(ids, p50, p90, p99);
+    }
+
+    /**
+     * Nearest-rank index of a percentile in a sorted sample
+     */
+    private static int rank(int percentile, int count) {
+        return Math.max(0, (int) Math.ceil(percentile / 100.0 * count) - 1);
+    }
+
+    /**
+     * Range of trials, split in halves until small enough to run directly
+     */
+    @SuppressWarnings("serial")   // Never serialized
+    private class TrialTask extends RecursiveAction {
+        private final int[] etas;
+        private final int from;
+        private final int to;
+        private final double sigma;
+        private final long seed;
+
+        TrialTask(int[] etas, int from, int to, double sigma, long seed) {
+            this.etas = etas;
+            this.from = from;
+            this.to = to;
+            this.sigma = sigma;
+            this.seed = seed;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TRIALS_PER_TASK) {
+                if (flightClasses != null) {
+                    RunwayClassIndex index = new RunwayClassIndex(runwayMasks);
+                    int[] keys = new int[runwayFree.length];
+                    for (int trial = from; trial < to; trial++) {
+                        runConstrainedTrial(trial, index, keys);
+                    }
+                    return;
+                }
+                long[] heap = new long[runwayFree.length];   // Reused by every trial here
+                for (int trial = from; trial < to; trial++) {
+                    runTrial(trial, heap);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new TrialTask(etas, from, mid, sigma, seed),
+                      new TrialTask(etas, mid, to, sigma, seed));
+        }
+
+        /**
+         * One greedy pass with perturbed durations
+         * heap holds packed (freeTime, runwayIndex) keys, 0-indexed binary min-heap
+         */
+        private void runTrial(int trial, long[] heap) {
+            int r = runwayFree.length;
+            for (int i = 0; i < r; i++) {
+                heap[i] = ((long) earliestOpen(i, runwayFree[i]) << 32) | i;
+            }
+            Arrays.sort(heap, 0, r);    // A sorted array is a valid heap
+
+            int row = trial * flightIDs.length;
+            long state = seed + (trial + 1) * 0x9E3779B97F4A7C15L;
+            for (int f = 0; f < flightIDs.length; f++) {
+                state += 2 * 0x9E3779B97F4A7C15L;
+                int duration = perturb(durations[f], state);
+
+                // Earliest free runway is the heap root
+                long top = heap[0];
+                int open = (int) (top >> 32);
+                if (open == Runway.OPEN_ENDED) {
+                    etas[row + f] = Runway.OPEN_ENDED;
+                    continue;
+                }
+                int start = Math.max(currentTime, open);
+                int eta = start + duration;
+                etas[row + f] = eta;
+
+                int runway = (int) (top & 0xFFFFFFFFL);
+                siftDownRoot(heap, r, ((long) earliestOpen(runway, eta) << 32) | runway);
+            }
+        }
+
+        /**
+         * One greedy pass with capability classes: each flight takes the
+         * earliest compatible runway from the per-class heaps
+         */
+        private void runConstrainedTrial(int trial, RunwayClassIndex index, int[] keys) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = earliestOpen(i, runwayFree[i]);
+            }
+            index.reset(keys);
+
+            int row = trial * flightIDs.length;
+            long state = seed + (trial + 1) * 0x9E3779B97F4A7C15L;
+            for (int f = 0; f < flightIDs.length; f++) {
+                state += 2 * 0x9E3779B97F4A7C15L;
+                int duration = perturb(durations[f], state);
+
+                int runway = index.earliest(flightClasses[f]);
+                if (runway < 0 || index.key(runway) == Runway.OPEN_ENDED) {
+                    etas[row + f] = Runway.OPEN_ENDED;
+                    continue;
+                }
+                int eta = Math.max(currentTime, index.key(runway)) + duration;
+                etas[row + f] = eta;
+                index.update(runway, earliestOpen(runway, eta));
+            }
+        }
+
+        /**
+         * Duration scaled by exp(sigma * N(0,1)), Box-Muller on the two
+         * SplitMix64 draws at state - step and state
+         */
+        private int perturb(int duration, long state) {
+            double u1 = ((mix(state - 0x9E3779B97F4A7C15L) >>> 11) + 1) * 0x1.0p-53;
+            double u2 = (mix(state) >>> 11) * 0x1.0p-53;
+            double gaussian = Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+            return Math.max(1, (int) Math.round(duration * Math.exp(sigma * gaussian)));
+        }
+    }
+
+    /**
+     * Earliest time >= t outside the runway's closure windows
+     */
+    private int earliestOpen(int runway, int t) {
+        int[] starts = closureStarts[runway];
+        if (starts == null) {
+            return t;
+        }
+        // Last window starting at or before t
+        int i = Arrays.binarySearch(starts, t);
+        if (i < 0) {
+            i = -i - 2;
+        }
+        return i >= 0 && closureEnds[runway][i] > t ? closureEnds[runway][i] : t;
+    }
+
+    /**
+     * Replace the root with key and restore the heap property
+     */
+    private static void siftDownRoot(long[] heap, int size, long key) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= key) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = key;
+    }
+
+    /**
+     * SplitMix64 finalizer
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int r = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int trials = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        // Synthetic snapshot: random durations, runways free from time 0
+        Random random = new Random(1);
+        int[] ids = new int[n];
+        int[] durations = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i + 1;
+            durations[i] = 1 + random.nextInt(30);
+        }
+        DelayForecaster forecaster = new DelayForecaster(0, ids, durations, new int[r]);
+        long start;
+        Forecast forecast;
+        try {
+            forecaster.run(Math.min(trials, 100), 0.2, 7L); // Warm-up
+
+            start = System.nanoTime();
+            forecast = forecaster.run(trials, 0.2, 42L);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%d flights, %d runways, %d trials: %.1f ms on %d cores%n",
+                          forecaster.size(), r, trials, elapsed / 1e6,
+                          Runtime.getRuntime().availableProcessors());
+        List<String> lines = forecast.toLines();
+        for (int i = 0; i < Math.min(5, lines.size()); i++) {
+            System.out.println(lines.get(i));
+        }
+    }
+}
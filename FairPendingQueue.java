@@ -0,0 +1,274 @@
+import java.util.*;
+
+/**
+ * Fair Pending Queue - Greedy order with per-airline runway-share quotas
+ * Flights wait in one PairingHeap per airline, and a binary heap of the
+ * airlines orders them by their head flight (priority DESC, submitTime
+ * ASC, flightID ASC), so the overall greedy order is the order of heads.
+ *
+ * The queue keeps the starts of the trailing window [clock - window + 1,
+ * clock], where clock is the latest start seen. Real starts (recordStart,
+ * a flight becoming IN_PROGRESS) are kept across passes, so flights that
+ * already landed still count; the starts a pass assigns (started) count
+ * until the next clear(), which goes back to the real ones. Starts may be
+ * reported in any time order (with capability classes each class
+ * advances on its own), so both sets are min-heaps by start time pruned
+ * from the top: the window never depends on the order of the reports.
+ *
+ * An airline is over quota while it has starts in the window and one more
+ * would give it more than share of the window's starts. extractMax takes
+ * the best head among airlines within quota, or the best head overall if
+ * every airline with flights is over quota, so runways never stay idle.
+ *
+ * Over-quota airlines each hold more than their share of the window, so
+ * there are fewer than about 1/share of them at once, and extractMax passes
+ * over a bounded number of heads:
+ * - insert: O(1) (the airline heap is built on the first extractMax)
+ * - extractMax: O((1/share) log a + log n) amortized for a airlines
+ * - started, recordStart: O(log w) amortized for w starts in the window
+ * - clear: O(a + w), rebuilding the window from the real starts
+ */
+public class FairPendingQueue implements PendingQueue {
+    // Airlines by head flight, best first
+    private static final Comparator<AirlineQueue> HEAD_ORDER = (a, b) -> {
+        Flight x = a.flights.findMax();
+        Flight y = b.flights.findMax();
+        if (x.priority != y.priority) {
+            return Integer.compare(y.priority, x.priority);
+        }
+        if (x.submitTime != y.submitTime) {
+            return Integer.compare(x.submitTime, y.submitTime);
+        }
+        return Integer.compare(x.flightID, y.flightID);
+    };
+
+    private final double share;
+    private final int window;
+    private final HashMap<Integer, AirlineQueue> airlines = new HashMap<>();
+    private final PriorityQueue<AirlineQueue> heads = new PriorityQueue<>(HEAD_ORDER);
+    private final ArrayList<AirlineQueue> overQuota = new ArrayList<>();
+    private int size;
+    private boolean ordered;
+
+    // Real starts, kept across passes, and the window of the current pass
+    private StartHeap history = new StartHeap();
+    private StartHeap current = new StartHeap();
+    private final ArrayList<AirlineQueue> numbered = new ArrayList<>();  // By airline number
+
+    /**
+     * Flights of one airline, and its starts in the window
+     */
+    private static class AirlineQueue {
+        final PairingHeap flights = new PairingHeap();
+        final int airlineID;
+        final int number;
+        int inWindow;
+
+        AirlineQueue(int airlineID, int number) {
+            this.airlineID = airlineID;
+            this.number = number;
+        }
+    }
+
+    /**
+     * Starts as a binary min-heap of (startTime << 32 | airline number),
+     * with the latest start time seen
+     */
+    private static class StartHeap {
+        long[] keys = new long[64];
+        int size;
+        int clock = Integer.MIN_VALUE;
+
+        StartHeap copy() {
+            StartHeap copy = new StartHeap();
+            copy.keys = keys.clone();
+            copy.size = size;
+            copy.clock = clock;
+            return copy;
+        }
+
+        void add(int startTime, int airline) {
+            clock = Math.max(clock, startTime);
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            long key = ((long) startTime << 32) | airline;
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                i = parent;
+            }
+            keys[i] = key;
+        }
+
+        /**
+         * Airline number of the oldest start if it is out of the window
+         * ending at clock, else -1
+         */
+        int expired(int window) {
+            return size > 0 && (keys[0] >> 32) <= (long) clock - window ? (int) keys[0] : -1;
+        }
+
+        void removeOldest() {
+            long key = keys[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (keys[child] >= key) {
+                    break;
+                }
+                keys[i] = keys[child];
+                i = child;
+            }
+            keys[i] = key;
+        }
+    }
+
+    /**
+     * Queue allowing each airline at most share (0..1) of the starts in
+     * any window of the given length
+     */
+    public FairPendingQueue(double share, int window) {
+        if (!(share > 0 && share < 1) || window <= 0) {
+            throw new IllegalArgumentException("Fairness needs 0 < share < 1 and window > 0");
+        }
+        this.share = share;
+        this.window = window;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Add a flight (before the first extractMax since clear)
+     */
+    @Override
+    public void insert(Flight flight) {
+        airline(flight.airlineID).flights.insert(flight);
+        size++;
+    }
+
+    /**
+     * Best flight of the best airline within quota
+     */
+    @Override
+    public Flight extractMax() {
+        if (!ordered) {
+            ordered = true;
+            for (AirlineQueue airline : airlines.values()) {
+                if (!airline.flights.isEmpty()) {
+                    heads.add(airline);
+                }
+            }
+        }
+        if (heads.isEmpty()) {
+            return null;
+        }
+
+        AirlineQueue pick = null;
+        while (!heads.isEmpty()) {
+            AirlineQueue airline = heads.poll();
+            if (airline.inWindow == 0 || airline.inWindow + 1 <= share * (current.size + 1)) {
+                pick = airline;
+                break;
+            }
+            overQuota.add(airline);
+        }
+        if (pick == null) {
+            pick = overQuota.remove(0);   // Everyone over quota: best head overall
+        }
+
+        Flight flight = pick.flights.extractMax();
+        if (!pick.flights.isEmpty()) {
+            heads.add(pick);
+        }
+        heads.addAll(overQuota);
+        overQuota.clear();
+        size--;
+        return flight;
+    }
+
+    /**
+     * Count a start this pass assigned (until the next clear) and slide
+     * the window to the latest start
+     */
+    public void started(Flight flight, int startTime) {
+        AirlineQueue airline = airline(flight.airlineID);
+        current.add(startTime, airline.number);
+        airline.inWindow++;
+        for (int oldest; (oldest = current.expired(window)) >= 0; current.removeOldest()) {
+            numbered.get(oldest).inWindow--;
+        }
+    }
+
+    /**
+     * Count a real start (the flight became IN_PROGRESS) in this pass and
+     * in every later one while it stays in the window
+     */
+    public void recordStart(Flight flight, int startTime) {
+        history.add(startTime, airline(flight.airlineID).number);
+        while (history.expired(window) >= 0) {
+            history.removeOldest();
+        }
+        started(flight, startTime);
+    }
+
+    /**
+     * Remove all flights and go back to the window of real starts
+     */
+    @Override
+    public void clear() {
+        for (AirlineQueue airline : numbered) {
+            airline.flights.clear();
+            airline.inWindow = 0;
+        }
+        heads.clear();
+        size = 0;
+        ordered = false;
+
+        current = history.copy();
+        for (int i = 0; i < current.size; i++) {
+            numbered.get((int) current.keys[i]).inWindow++;
+        }
+    }
+
+    /**
+     * Empty queue with the same real starts (for forks)
+     */
+    public FairPendingQueue copy() {
+        FairPendingQueue copy = new FairPendingQueue(share, window);
+        for (AirlineQueue airline : numbered) {
+            copy.airline(airline.airlineID);   // Same numbers as the starts
+        }
+        copy.history = history.copy();
+        copy.clear();
+        return copy;
+    }
+
+    private AirlineQueue airline(int airlineID) {
+        AirlineQueue airline = airlines.get(airlineID);
+        if (airline == null) {
+            airline = new AirlineQueue(airlineID, numbered.size());
+            airlines.put(airlineID, airline);
+            numbered.add(airline);
+        }
+        return airline;
+    }
+}
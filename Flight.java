@@ -9,11 +9,15 @@ public class Flight {
     int submitTime;
     int priority;
     int duration;
+    int flightClass;                // Capability class (runways must accept it)
     
     // Scheduling information
     int startTime;
     int ETA;
     int runwayID;
+    int reportedETA = -1;           // ETA last shown in output (scheduled or Updated ETAs)
+    int etaEpoch;                   // Last ETA capture that saw this flight change
+    boolean removed;                // Landed, canceled or grounded (dropped lazily from indexes)
     
     // Flight states: PENDING, SCHEDULED, IN_PROGRESS, COMPLETED
     FlightState state;
@@ -21,6 +25,7 @@ public class Flight {
     // Handles for heap structures (for efficient updates)
     PairingNode heapNode;           // Handle in pairing heap (pending flights)
     int completionHeapIndex;        // Index in completion heap (timetable)
+    int storeSlot = -1;             // Slot in the FlightStore, if one is attached
     
     /**
      * Constructor for new flight submission
@@ -41,6 +46,27 @@ public class Flight {
         this.completionHeapIndex = -1;
     }
     
+    /**
+     * Copy constructor used when forking scheduler state
+     * Keeps the timetable handle (forks copy heap arrays index-for-index)
+     */
+    public Flight(Flight other) {
+        this.flightID = other.flightID;
+        this.airlineID = other.airlineID;
+        this.submitTime = other.submitTime;
+        this.priority = other.priority;
+        this.duration = other.duration;
+        this.flightClass = other.flightClass;
+        this.startTime = other.startTime;
+        this.ETA = other.ETA;
+        this.runwayID = other.runwayID;
+        this.reportedETA = other.reportedETA;
+        this.etaEpoch = other.etaEpoch;
+        this.state = other.state;
+        this.heapNode = null;
+        this.completionHeapIndex = other.completionHeapIndex;
+    }
+    
     /**
      * Check if flight has started
      */
@@ -0,0 +1,495 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Flight Archive - Time-partitioned history of landed flights
+ * Every landed flight is appended as one fixed-width binary record:
+ *   flightID, airlineID, runwayID, submitTime, priority, startTime, ETA
+ * (7 big-endian ints, 28 bytes).
+ *
+ * Records go to segment files by landing time: segment-<start>.dat holds
+ * ETAs in [start, start + span). Flights land in (ETA, flightID) order, so
+ * each segment is sorted by ETA and a time range is found by binary search
+ * on the memory-mapped file. Per-segment summaries (ETA bounds, airlines,
+ * runways) kept in memory let queries skip whole segments.
+ *
+ * Writes are asynchronous: append() copies the record into a batch on the
+ * command thread, and a writer thread drains full batches to disk. The
+ * command thread only blocks if the writer falls QUEUED_BATCHES behind.
+ *
+ * Query usage: java FlightArchive <dir> <fromTime> <toTime> [airlineID] [runwayID]
+ *   (-1 for airlineID or runwayID matches any)
+ */
+public class FlightArchive implements Closeable {
+    public static final int ANY = -1;
+
+    static final int RECORD_INTS = 7;
+    static final int RECORD_BYTES = RECORD_INTS * 4;
+    private static final int ETA_OFFSET = 6 * 4;
+    private static final int BATCH_RECORDS = 1024;
+    private static final int QUEUED_BATCHES = 64;
+    private static final String SPAN_FILE = "segment-span";
+
+    private final Path dir;
+    private final int span;
+
+    // Segment summaries by segment start time (guarded by itself)
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+
+    // Command thread side
+    private int[] batch = new int[BATCH_RECORDS * RECORD_INTS];
+    private int batchRecords;
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUED_BATCHES);
+    private final BlockingQueue<int[]> freeBatches = new ArrayBlockingQueue<>(QUEUED_BATCHES + 1);
+
+    // Writer thread side
+    private final Thread writer;
+    private volatile IOException failure;
+    private Segment openSegment;
+    private FileChannel openChannel;
+    private boolean closed;
+
+    private static final Object STOP = new Object();
+
+    /**
+     * A landed flight read back from the archive
+     */
+    public static class ArchivedFlight {
+        public final int flightID;
+        public final int airlineID;
+        public final int runwayID;
+        public final int submitTime;
+        public final int priority;
+        public final int startTime;
+        public final int ETA;
+
+        ArchivedFlight(ByteBuffer buffer, int offset) {
+            this.flightID = buffer.getInt(offset);
+            this.airlineID = buffer.getInt(offset + 4);
+            this.runwayID = buffer.getInt(offset + 8);
+            this.submitTime = buffer.getInt(offset + 12);
+            this.priority = buffer.getInt(offset + 16);
+            this.startTime = buffer.getInt(offset + 20);
+            this.ETA = buffer.getInt(offset + 24);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[flight%d, airline %d, runway %d, submit %d, priority %d, start %d, ETA %d]",
+                                 flightID, airlineID, runwayID, submitTime, priority, startTime, ETA);
+        }
+    }
+
+    /**
+     * Summary of one segment file
+     */
+    private static class Segment {
+        final int start;
+        final Path path;
+        int count;                      // Complete records on disk
+        int minETA = Integer.MAX_VALUE;
+        int maxETA = Integer.MIN_VALUE;
+        boolean sorted = true;          // False if a reopened archive went back in time
+        final BitSet runways = new BitSet();
+        final Set<Integer> airlines = new HashSet<>();
+
+        Segment(int start, Path path) {
+            this.start = start;
+            this.path = path;
+        }
+
+        void add(int airlineID, int runwayID, int eta) {
+            if (eta < maxETA) {
+                sorted = false;
+            }
+            minETA = Math.min(minETA, eta);
+            maxETA = Math.max(maxETA, eta);
+            airlines.add(airlineID);
+            if (runwayID >= 0) {
+                runways.set(runwayID);
+            }
+            count++;
+        }
+
+        boolean mayContain(int fromTime, int toTime, int airlineID, int runwayID) {
+            return count > 0 && maxETA >= fromTime && minETA <= toTime
+                && (airlineID == ANY || airlines.contains(airlineID))
+                && (runwayID == ANY || (runwayID >= 0 && runways.get(runwayID)));
+        }
+    }
+
+    /**
+     * Open (or create) an archive directory
+     * Existing segments are scanned to rebuild their summaries; a directory
+     * keeps the segment span it was created with.
+     */
+    public FlightArchive(Path dir, int span) throws IOException {
+        if (span <= 0) {
+            throw new IllegalArgumentException("segment span must be positive: " + span);
+        }
+        this.dir = dir;
+        Files.createDirectories(dir);
+
+        Path spanFile = dir.resolve(SPAN_FILE);
+        if (Files.exists(spanFile)) {
+            span = Integer.parseInt(new String(Files.readAllBytes(spanFile), "UTF-8").trim());
+        } else {
+            Files.write(spanFile, Integer.toString(span).getBytes("UTF-8"));
+        }
+        this.span = span;
+
+        recover();
+
+        this.writer = new Thread(this::writerLoop, "gator-archive-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Segment span in time units
+     */
+    public int getSpan() {
+        return span;
+    }
+
+    // ---- Command thread ----
+
+    /**
+     * Record a landed flight (called from advanceTime)
+     */
+    public void append(Flight flight) {
+        int i = batchRecords * RECORD_INTS;
+        batch[i] = flight.flightID;
+        batch[i + 1] = flight.airlineID;
+        batch[i + 2] = flight.runwayID;
+        batch[i + 3] = flight.submitTime;
+        batch[i + 4] = flight.priority;
+        batch[i + 5] = flight.startTime;
+        batch[i + 6] = flight.ETA;
+        if (++batchRecords == BATCH_RECORDS) {
+            handOff();
+        }
+    }
+
+    /**
+     * Queue the current batch for the writer and start a new one
+     */
+    private void handOff() {
+        if (batchRecords == 0) {
+            return;
+        }
+        // Short batches are marked by a -1 flightID after the last record
+        if (batchRecords < BATCH_RECORDS) {
+            batch[batchRecords * RECORD_INTS] = -1;
+        }
+        put(batch);
+        int[] next = freeBatches.poll();
+        batch = next != null ? next : new int[BATCH_RECORDS * RECORD_INTS];
+        batchRecords = 0;
+    }
+
+    private void put(Object item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wait until everything appended so far is on disk
+     */
+    public void sync() throws IOException {
+        handOff();
+        CountDownLatch done = new CountDownLatch(1);
+        put(done);
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Flush outstanding records and stop the writer thread
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        handOff();
+        put(STOP);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // ---- Writer thread ----
+
+    private void writerLoop() {
+        ByteBuffer out = ByteBuffer.allocateDirect(BATCH_RECORDS * RECORD_BYTES);
+        try {
+            while (true) {
+                Object item = queue.take();
+                if (item == STOP) {
+                    break;
+                }
+                if (item instanceof CountDownLatch) {
+                    ((CountDownLatch) item).countDown();
+                    continue;
+                }
+                int[] records = (int[]) item;
+                if (failure == null) {
+                    try {
+                        write(records, out);
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+                freeBatches.offer(records);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                if (openChannel != null) {
+                    openChannel.close();
+                }
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Write one batch, switching segment files at span boundaries
+     */
+    private void write(int[] records, ByteBuffer out) throws IOException {
+        out.clear();
+        int first = 0;   // First record buffered for openSegment
+        int n = 0;
+        while (n < BATCH_RECORDS && records[n * RECORD_INTS] != -1) {
+            int start = segmentStart(records[n * RECORD_INTS + 6]);
+            if (openSegment == null || openSegment.start != start) {
+                drain(records, first, n, out);
+                first = n;
+                openSegmentFor(start);
+            }
+            int i = n * RECORD_INTS;
+            for (int k = 0; k < RECORD_INTS; k++) {
+                out.putInt(records[i + k]);
+            }
+            n++;
+        }
+        drain(records, first, n, out);
+    }
+
+    /**
+     * Write buffered bytes to the open segment, then publish their summaries
+     */
+    private void drain(int[] records, int from, int to, ByteBuffer out) throws IOException {
+        if (from == to) {
+            return;
+        }
+        out.flip();
+        while (out.hasRemaining()) {
+            openChannel.write(out);
+        }
+        out.clear();
+        synchronized (segments) {
+            for (int r = from; r < to; r++) {
+                int i = r * RECORD_INTS;
+                openSegment.add(records[i + 1], records[i + 2], records[i + 6]);
+            }
+        }
+    }
+
+    private void openSegmentFor(int start) throws IOException {
+        if (openChannel != null) {
+            openChannel.close();
+        }
+        Segment segment;
+        synchronized (segments) {
+            segment = segments.get(start);
+            if (segment == null) {
+                segment = new Segment(start, dir.resolve("segment-" + start + ".dat"));
+                segments.put(start, segment);
+            }
+        }
+        openChannel = FileChannel.open(segment.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        openChannel.position((long) segment.count * RECORD_BYTES);
+        openSegment = segment;
+    }
+
+    private int segmentStart(int eta) {
+        return Math.floorDiv(eta, span) * span;
+    }
+
+    // ---- Recovery ----
+
+    /**
+     * Rebuild segment summaries from the files on disk
+     * A torn trailing record (crash mid-write) is ignored and overwritten
+     */
+    private void recover() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "segment-*.dat")) {
+            for (Path path : files) {
+                String name = path.getFileName().toString();
+                int start;
+                try {
+                    start = Integer.parseInt(name.substring("segment-".length(), name.length() - ".dat".length()));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                Segment segment = new Segment(start, path);
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    int records = (int) (channel.size() / RECORD_BYTES);
+                    if (records > 0) {
+                        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) records * RECORD_BYTES);
+                        for (int r = 0; r < records; r++) {
+                            int offset = r * RECORD_BYTES;
+                            segment.add(map.getInt(offset + 4), map.getInt(offset + 8), map.getInt(offset + ETA_OFFSET));
+                        }
+                    }
+                }
+                segments.put(start, segment);
+            }
+        }
+    }
+
+    // ---- Queries ----
+
+    /**
+     * Landed flights with fromTime <= ETA <= toTime, optionally filtered by
+     * airline and runway (ANY matches all), in archive order
+     * Waits for pending writes first, so recent landings are included.
+     */
+    public List<ArchivedFlight> query(int fromTime, int toTime, int airlineID, int runwayID) throws IOException {
+        if (!closed) {
+            sync();
+        }
+
+        // Candidate segments and their record counts as of now
+        List<Segment> candidates = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        List<Boolean> sortedFlags = new ArrayList<>();
+        synchronized (segments) {
+            Integer from = segments.floorKey(segmentStart(fromTime));
+            SortedMap<Integer, Segment> range = from == null ? segments.headMap(toTime, true)
+                                                             : segments.subMap(from, true, toTime, true);
+            for (Segment segment : range.values()) {
+                if (segment.mayContain(fromTime, toTime, airlineID, runwayID)) {
+                    candidates.add(segment);
+                    counts.add(segment.count);
+                    sortedFlags.add(segment.sorted);
+                }
+            }
+        }
+
+        List<ArchivedFlight> result = new ArrayList<>();
+        for (int s = 0; s < candidates.size(); s++) {
+            int count = counts.get(s);
+            boolean sorted = sortedFlags.get(s);
+            try (FileChannel channel = FileChannel.open(candidates.get(s).path, StandardOpenOption.READ)) {
+                MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) count * RECORD_BYTES);
+                int r = sorted ? lowerBound(map, count, fromTime) : 0;
+                for (; r < count; r++) {
+                    int offset = r * RECORD_BYTES;
+                    int eta = map.getInt(offset + ETA_OFFSET);
+                    if (eta > toTime) {
+                        if (sorted) {
+                            break;
+                        }
+                        continue;
+                    }
+                    if (eta < fromTime
+                        || (airlineID != ANY && map.getInt(offset + 4) != airlineID)
+                        || (runwayID != ANY && map.getInt(offset + 8) != runwayID)) {
+                        continue;
+                    }
+                    result.add(new ArchivedFlight(map, offset));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * First record with ETA >= t in an ETA-sorted segment
+     */
+    private static int lowerBound(ByteBuffer map, int count, int t) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (map.getInt(mid * RECORD_BYTES + ETA_OFFSET) < t) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Total archived flights
+     */
+    public long size() throws IOException {
+        if (!closed) {
+            sync();
+        }
+        long total = 0;
+        synchronized (segments) {
+            for (Segment segment : segments.values()) {
+                total += segment.count;
+            }
+        }
+        return total;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3 || args.length > 5) {
+            System.err.println("Usage: java FlightArchive <dir> <fromTime> <toTime> [airlineID] [runwayID]");
+            System.exit(1);
+        }
+
+        Path dir = Paths.get(args[0]);
+        if (!Files.isDirectory(dir)) {
+            System.err.println("Error: Archive not found - " + args[0]);
+            System.exit(1);
+        }
+        int fromTime = Integer.parseInt(args[1]);
+        int toTime = Integer.parseInt(args[2]);
+        int airlineID = args.length > 3 ? Integer.parseInt(args[3]) : ANY;
+        int runwayID = args.length > 4 ? Integer.parseInt(args[4]) : ANY;
+
+        try (FlightArchive archive = new FlightArchive(dir, 1)) {
+            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out));
+            for (ArchivedFlight flight : archive.query(fromTime, toTime, airlineID, runwayID)) {
+                out.write(flight.toString());
+                out.newLine();
+            }
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("Error: IO exception - " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Flight Store - Durable copy of the live scheduler state
+ * The active flights live in fixed-width slots of a memory-mapped file,
+ * written through as the scheduler changes them, so the state survives a
+ * crash of the process without replaying any commands.
+ *
+ * flights.dat: header (magic "GATS", slot count, currentTime, finished),
+ * then one slot per flight of SLOT_INTS big-endian ints:
+ *   state, flightID, airlineID, submitTime, priority, duration,
+ *   flightClass, startTime, ETA, runwayID, reportedETA
+ * State 0 marks a free slot, otherwise FlightState ordinal + 1. The file
+ * doubles when the slots run out.
+ *
+ * runways.dat: runway capabilities and closure windows. Runways change
+ * rarely, so the file is rewritten whole and renamed into place.
+ *
+ * A session ended by Quit() sets the finished flag (one header write), and
+ * the next open discards the state instead of restoring it. A crash, or
+ * input ending without Quit(), leaves the flag clear and the state to be
+ * picked up again.
+ *
+ * Mapped writes reach the OS page cache immediately; sync() (run on close)
+ * forces them to the device as well.
+ */
+public class FlightStore implements Closeable {
+    static final int SLOT_INTS = 11;
+    static final int SLOT_BYTES = SLOT_INTS * 4;
+    private static final int HEADER_BYTES = 16;
+    private static final int MAGIC = 0x47415453;   // "GATS"
+    private static final int FINISHED = 1;
+    private static final int INITIAL_SLOTS = 1024;
+    private static final String FLIGHTS_FILE = "flights.dat";
+    private static final String RUNWAYS_FILE = "runways.dat";
+
+    private final Path dir;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int slots;
+    private int[] freeSlots;       // Stack, lowest slot on top
+    private int freeCount;
+    private final List<Flight> recovered = new ArrayList<>();
+
+    /**
+     * Open the store in dir, creating it if needed
+     * Flights found in an existing store are available from flights(),
+     * unless its session was finished: then it is emptied
+     */
+    public FlightStore(Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+        this.channel = FileChannel.open(dir.resolve(FLIGHTS_FILE), StandardOpenOption.CREATE,
+                                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            map(INITIAL_SLOTS);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, slots);
+            buffer.putInt(8, 0);
+            buffer.putInt(12, 0);
+        } else {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("not a flight store: " + dir);
+            }
+            map((int) ((channel.size() - HEADER_BYTES) / SLOT_BYTES));
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != slots) {
+                throw new IOException("not a flight store: " + dir);
+            }
+        }
+
+        // One scan: live slots become flights, the rest the free list
+        boolean finished = buffer.getInt(12) == FINISHED;
+        freeSlots = new int[slots];
+        for (int slot = slots - 1; slot >= 0; slot--) {
+            if (finished) {
+                buffer.putInt(offset(slot), 0);
+            }
+            if (buffer.getInt(offset(slot)) == 0) {
+                freeSlots[freeCount++] = slot;
+            } else {
+                recovered.add(read(slot));
+            }
+        }
+        Collections.reverse(recovered);
+        if (finished) {
+            // Flag cleared last: a crash in between empties the store again
+            Files.deleteIfExists(dir.resolve(RUNWAYS_FILE));
+            buffer.putInt(8, 0);
+            buffer.putInt(12, 0);
+        }
+    }
+
+    /**
+     * Flights held when the store was opened, in slot order
+     */
+    public List<Flight> flights() {
+        return recovered;
+    }
+
+    /**
+     * Time the stored state had reached
+     */
+    public int currentTime() {
+        return buffer.getInt(8);
+    }
+
+    public void setCurrentTime(int currentTime) {
+        buffer.putInt(8, currentTime);
+    }
+
+    /**
+     * Write all fields of a flight, taking a slot for it if it has none
+     */
+    public void write(Flight flight) {
+        if (flight.storeSlot < 0) {
+            if (freeCount == 0) {
+                grow();
+            }
+            flight.storeSlot = freeSlots[--freeCount];
+        }
+        int at = offset(flight.storeSlot);
+        buffer.putInt(at + 4, flight.flightID);
+        buffer.putInt(at + 8, flight.airlineID);
+        buffer.putInt(at + 12, flight.submitTime);
+        buffer.putInt(at + 16, flight.priority);
+        buffer.putInt(at + 20, flight.duration);
+        buffer.putInt(at + 24, flight.flightClass);
+        buffer.putInt(at + 28, flight.startTime);
+        buffer.putInt(at + 32, flight.ETA);
+        buffer.putInt(at + 36, flight.runwayID);
+        buffer.putInt(at + 40, flight.reportedETA);
+        buffer.putInt(at, flight.state.ordinal() + 1);  // Last: marks the slot live
+    }
+
+    /**
+     * Release the flight's slot
+     */
+    public void free(Flight flight) {
+        if (flight.storeSlot < 0) {
+            return;
+        }
+        buffer.putInt(offset(flight.storeSlot), 0);
+        freeSlots[freeCount++] = flight.storeSlot;
+        flight.storeSlot = -1;
+    }
+
+    /**
+     * Runways as last written, with IDs 1..n in list order
+     */
+    public List<Runway> readRunways() throws IOException {
+        List<Runway> runways = new ArrayList<>();
+        Path file = dir.resolve(RUNWAYS_FILE);
+        if (!Files.exists(file)) {
+            return runways;
+        }
+        try (DataInputStream in = new DataInputStream(
+                 new BufferedInputStream(Files.newInputStream(file)))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Runway runway = new Runway(i + 1, 0);
+                runway.capabilities = in.readInt();
+                int windows = in.readInt();
+                if (windows > 0) {
+                    runway.closures = new TreeMap<>();
+                    for (int w = 0; w < windows; w++) {
+                        runway.closures.put(in.readInt(), in.readInt());
+                    }
+                }
+                runways.add(runway);
+            }
+        }
+        return runways;
+    }
+
+    /**
+     * Replace the stored runways
+     */
+    public void writeRunways(List<Runway> runways) throws IOException {
+        Path temp = dir.resolve(RUNWAYS_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                 new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(runways.size());
+            for (Runway runway : runways) {
+                out.writeInt(runway.capabilities);
+                Map<Integer, Integer> closures = runway.closures != null ? runway.closures
+                                                                          : Collections.emptyMap();
+                out.writeInt(closures.size());
+                for (Map.Entry<Integer, Integer> window : closures.entrySet()) {
+                    out.writeInt(window.getKey());
+                    out.writeInt(window.getValue());
+                }
+            }
+        }
+        Files.move(temp, dir.resolve(RUNWAYS_FILE), StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Mark the session finished (ended by Quit()): the next open starts
+     * empty instead of restoring this state
+     */
+    public void finish() {
+        buffer.putInt(12, FINISHED);
+    }
+
+    /**
+     * Force the mapped slots to the storage device
+     */
+    public void sync() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        channel.close();
+    }
+
+    private Flight read(int slot) {
+        int at = offset(slot);
+        Flight flight = new Flight(buffer.getInt(at + 4), buffer.getInt(at + 8),
+                                   buffer.getInt(at + 12), buffer.getInt(at + 16),
+                                   buffer.getInt(at + 20));
+        flight.flightClass = buffer.getInt(at + 24);
+        flight.startTime = buffer.getInt(at + 28);
+        flight.ETA = buffer.getInt(at + 32);
+        flight.runwayID = buffer.getInt(at + 36);
+        flight.reportedETA = buffer.getInt(at + 40);
+        flight.state = FlightState.values()[buffer.getInt(at) - 1];
+        flight.storeSlot = slot;
+        return flight;
+    }
+
+    /**
+     * Double the slots (the old mapping is dropped)
+     */
+    private void grow() {
+        int old = slots;
+        try {
+            map(old * 2);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot grow flight store", e);
+        }
+        buffer.putInt(4, slots);
+        freeSlots = Arrays.copyOf(freeSlots, slots);
+        for (int slot = slots - 1; slot >= old; slot--) {
+            freeSlots[freeCount++] = slot;
+        }
+    }
+
+    private void map(int count) throws IOException {
+        slots = count;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                             HEADER_BYTES + (long) count * SLOT_BYTES);
+    }
+
+    private static int offset(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+}
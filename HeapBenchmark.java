@@ -0,0 +1,254 @@
+import java.util.*;
+
+/**
+ * Heap Benchmark - Compares binary and d-ary timetable/runway heaps
+ * Measures insert, delete and extractAllUpTo throughput on the same
+ * randomly generated flights, plus a greedy runway assignment loop and a
+ * full fill-and-drain pass of each pending queue
+ *
+ * Usage: java HeapBenchmark [numFlights] [numRunways] [rounds]
+ */
+public class HeapBenchmark {
+    private static final int[] ARITIES = {4, 8};
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int r = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        Flight[] flights = generateFlights(n, 42L);
+        int[] deleteOrder = shuffledIndices(n / 2, 7L);
+
+        System.out.printf("Timetable heaps: %d flights, best of %d rounds (Mops/s)%n", n, rounds);
+        System.out.printf("%-10s %10s %10s %16s%n", "heap", "insert", "delete", "extractAllUpTo");
+        report("binary", timeBinaryCompletion(flights, deleteOrder, rounds));
+        for (int d : ARITIES) {
+            report(d + "-ary", timeDaryCompletion(flights, deleteOrder, rounds, d));
+        }
+
+        System.out.printf("%nRunway heaps: %d runways, %d assignments, best of %d rounds (Mops/s)%n",
+                          r, n, rounds);
+        System.out.printf("%-10s %10s%n", "heap", "assign");
+        System.out.printf("%-10s %10.2f%n", "binary", timeBinaryRunways(flights, r, rounds));
+        for (int d : ARITIES) {
+            System.out.printf("%-10s %10.2f%n", d + "-ary", timeDaryRunways(flights, r, rounds, d));
+        }
+
+        System.out.printf("%nPending queues: %d flights per pass, best of %d rounds (Mops/s)%n", n, rounds);
+        System.out.printf("%-10s %12s %12s%n", "queue", "priority<10", "priority<1e6");
+        Flight[] narrow = generatePending(n, 10, 11L);
+        Flight[] wide = generatePending(n, 1_000_000, 11L);
+        System.out.printf("%-10s %12.2f %12.2f%n", "pairing",
+                          timePending(new PairingHeap(), narrow, rounds),
+                          timePending(new PairingHeap(), wide, rounds));
+        System.out.printf("%-10s %12.2f %12.2f%n", "sorted",
+                          timePending(new SortedPendingQueue(), narrow, rounds),
+                          timePending(new SortedPendingQueue(), wide, rounds));
+        System.out.printf("%-10s %12.2f %12.2f%n", "bucket",
+                          timePending(new BucketPendingQueue(new SortedPendingQueue()), narrow, rounds),
+                          timePending(new BucketPendingQueue(new SortedPendingQueue()), wide, rounds));
+    }
+
+    /**
+     * Insert every flight, then extract them all, as a scheduling pass does
+     */
+    private static double timePending(PendingQueue queue, Flight[] flights, int rounds) {
+        double best = 0;
+        for (int round = 0; round < rounds; round++) {
+            queue.clear();
+            long t0 = System.nanoTime();
+            for (Flight flight : flights) {
+                queue.insert(flight);
+            }
+            while (queue.extractMax() != null) {
+            }
+            best = Math.max(best, mops(flights.length, System.nanoTime() - t0));
+        }
+        return best;
+    }
+
+    /**
+     * Run insert / delete half / extractAllUpTo in steps on CompletionHeap
+     */
+    private static double[] timeBinaryCompletion(Flight[] flights, int[] deleteOrder, int rounds) {
+        double[] best = new double[3];
+        for (int round = 0; round < rounds; round++) {
+            reset(flights);
+            CompletionHeap heap = new CompletionHeap(100);
+
+            long t0 = System.nanoTime();
+            for (Flight flight : flights) {
+                heap.insert(flight);
+            }
+            long t1 = System.nanoTime();
+            for (int i : deleteOrder) {
+                heap.delete(flights[i]);
+            }
+            long t2 = System.nanoTime();
+            int extracted = drain(heap, maxETA(flights));
+            long t3 = System.nanoTime();
+
+            keepBest(best, flights.length, deleteOrder.length, extracted, t0, t1, t2, t3);
+        }
+        return best;
+    }
+
+    /**
+     * Same workload as timeBinaryCompletion on DaryCompletionHeap
+     */
+    private static double[] timeDaryCompletion(Flight[] flights, int[] deleteOrder, int rounds, int arity) {
+        double[] best = new double[3];
+        for (int round = 0; round < rounds; round++) {
+            reset(flights);
+            DaryCompletionHeap heap = new DaryCompletionHeap(100, arity);
+
+            long t0 = System.nanoTime();
+            for (Flight flight : flights) {
+                heap.insert(flight);
+            }
+            long t1 = System.nanoTime();
+            for (int i : deleteOrder) {
+                heap.delete(flights[i]);
+            }
+            long t2 = System.nanoTime();
+            int extracted = drain(heap, maxETA(flights));
+            long t3 = System.nanoTime();
+
+            keepBest(best, flights.length, deleteOrder.length, extracted, t0, t1, t2, t3);
+        }
+        return best;
+    }
+
+    /**
+     * Greedy loop from scheduleAll: extractMin, advance, insert
+     */
+    private static double timeBinaryRunways(Flight[] flights, int r, int rounds) {
+        double best = 0;
+        for (int round = 0; round < rounds; round++) {
+            RunwayHeap heap = new RunwayHeap(r);
+            for (int i = 1; i <= r; i++) {
+                heap.insert(new Runway(i, 0));
+            }
+            long t0 = System.nanoTime();
+            for (Flight flight : flights) {
+                Runway runway = heap.extractMin();
+                runway.nextFreeTime += flight.duration;
+                heap.insert(runway);
+            }
+            best = Math.max(best, mops(flights.length, System.nanoTime() - t0));
+        }
+        return best;
+    }
+
+    /**
+     * Same greedy loop on DaryRunwayHeap
+     */
+    private static double timeDaryRunways(Flight[] flights, int r, int rounds, int arity) {
+        double best = 0;
+        for (int round = 0; round < rounds; round++) {
+            DaryRunwayHeap heap = new DaryRunwayHeap(r, arity);
+            for (int i = 1; i <= r; i++) {
+                heap.insert(new Runway(i, 0));
+            }
+            long t0 = System.nanoTime();
+            for (Flight flight : flights) {
+                Runway runway = heap.extractMin();
+                runway.nextFreeTime += flight.duration;
+                heap.insert(runway);
+            }
+            best = Math.max(best, mops(flights.length, System.nanoTime() - t0));
+        }
+        return best;
+    }
+
+    /**
+     * Extract everything in 100 equal time steps
+     */
+    private static int drain(CompletionHeap heap, int maxETA) {
+        int extracted = 0;
+        int step = Math.max(1, maxETA / 100);
+        for (int t = step; !heap.isEmpty(); t += step) {
+            extracted += heap.extractAllUpTo(t).size();
+        }
+        return extracted;
+    }
+
+    /**
+     * Extract everything in 100 equal time steps
+     */
+    private static int drain(DaryCompletionHeap heap, int maxETA) {
+        int extracted = 0;
+        int step = Math.max(1, maxETA / 100);
+        for (int t = step; !heap.isEmpty(); t += step) {
+            extracted += heap.extractAllUpTo(t).size();
+        }
+        return extracted;
+    }
+
+    private static void keepBest(double[] best, int inserts, int deletes, int extracts,
+                                 long t0, long t1, long t2, long t3) {
+        best[0] = Math.max(best[0], mops(inserts, t1 - t0));
+        best[1] = Math.max(best[1], mops(deletes, t2 - t1));
+        best[2] = Math.max(best[2], mops(extracts, t3 - t2));
+    }
+
+    private static void report(String name, double[] result) {
+        System.out.printf("%-10s %10.2f %10.2f %16.2f%n", name, result[0], result[1], result[2]);
+    }
+
+    private static double mops(int ops, long nanos) {
+        return ops * 1000.0 / Math.max(nanos, 1);
+    }
+
+    private static Flight[] generateFlights(int n, long seed) {
+        Random random = new Random(seed);
+        Flight[] flights = new Flight[n];
+        for (int i = 0; i < n; i++) {
+            flights[i] = new Flight(i + 1, random.nextInt(100), 0, random.nextInt(10), 1 + random.nextInt(50));
+            flights[i].ETA = 1 + random.nextInt(n);
+        }
+        // Shuffle so heap neighbours are not neighbours in memory order
+        Collections.shuffle(Arrays.asList(flights), random);
+        return flights;
+    }
+
+    /**
+     * Flights with priorities below priorityRange and spread submit times,
+     * in flightID order as the scheduler's flight map mostly yields them
+     */
+    private static Flight[] generatePending(int n, int priorityRange, long seed) {
+        Random random = new Random(seed);
+        Flight[] flights = new Flight[n];
+        for (int i = 0; i < n; i++) {
+            flights[i] = new Flight(i + 1, random.nextInt(100), i / 4, random.nextInt(priorityRange), 1);
+        }
+        return flights;
+    }
+
+    private static int[] shuffledIndices(int count, long seed) {
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < count * 2; i += 2) {
+            indices.add(i);
+        }
+        Collections.shuffle(indices, new Random(seed));
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = indices.get(i);
+        }
+        return result;
+    }
+
+    private static int maxETA(Flight[] flights) {
+        int max = 0;
+        for (Flight flight : flights) {
+            max = Math.max(max, flight.ETA);
+        }
+        return max;
+    }
+
+    private static void reset(Flight[] flights) {
+        for (Flight flight : flights) {
+            flight.completionHeapIndex = -1;
+        }
+    }
+}
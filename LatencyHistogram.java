@@ -0,0 +1,138 @@
+/**
+ * Log-linear histogram in the style of HdrHistogram
+ * Records non-negative long values (nanoseconds, counts) into buckets whose
+ * width grows with magnitude, so relative error stays below 1/64 at any scale
+ * while the footprint is a fixed long[] that never allocates on record.
+ *
+ * Key Operations:
+ * - record: O(1)
+ * - percentile: O(buckets)
+ *
+ * Written by a single thread; readers on other threads (JMX, periodic dumps)
+ * may see a slightly stale view, which is acceptable for monitoring.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;                      // 128 sub-buckets
+    private static final int HALF = 1 << (SUB_BUCKET_BITS - 1);        // 64
+    private static final int BUCKETS = 64 - SUB_BUCKET_BITS + 1;       // Covers every long
+
+    private final long[] counts;
+    private long totalCount;
+    private long sum;
+    private long min;
+    private long max;
+
+    /**
+     * Constructor
+     */
+    public LatencyHistogram() {
+        this.counts = new long[(BUCKETS + 1) * HALF];
+        reset();
+    }
+
+    /**
+     * Record a single value (negative values are clamped to 0)
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[indexOf(value)]++;
+        totalCount++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Number of recorded values
+     */
+    public long count() {
+        return totalCount;
+    }
+
+    /**
+     * Sum of recorded values
+     */
+    public long sum() {
+        return sum;
+    }
+
+    /**
+     * Smallest recorded value (0 when empty)
+     */
+    public long min() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    /**
+     * Largest recorded value (0 when empty)
+     */
+    public long max() {
+        return max;
+    }
+
+    /**
+     * Arithmetic mean of recorded values
+     */
+    public double mean() {
+        return totalCount == 0 ? 0.0 : (double) sum / totalCount;
+    }
+
+    /**
+     * Value at the given percentile (0-100)
+     * Returns the highest value equivalent to the bucket holding that rank
+     */
+    public long percentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * totalCount);
+        rank = Math.max(rank, 1);
+
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalent(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Clear all recorded values
+     */
+    public void reset() {
+        java.util.Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * Bucket index: linear below 128, then 64 sub-buckets per power of two
+     */
+    private static int indexOf(long value) {
+        int msb = 63 - Long.numberOfLeadingZeros(value | 1);
+        int bucket = Math.max(0, msb - (SUB_BUCKET_BITS - 1));
+        int sub = (int) (value >>> bucket);
+        return bucket * HALF + sub;
+    }
+
+    /**
+     * Largest value that maps to the given index
+     */
+    private static long highestEquivalent(int index) {
+        int bucket = Math.max(0, (index >> (SUB_BUCKET_BITS - 1)) - 1);
+        long sub = index - (long) bucket * HALF;
+        long lowest = sub << bucket;
+        return lowest + (1L << bucket) - 1;
+    }
+}
@@ -0,0 +1,113 @@
+import java.util.*;
+
+/**
+ * Output Sink - Destination of the scheduler's command output
+ * The frequent results (scheduled, landed, ETA updates, schedule and active
+ * flight listings) arrive as typed values, so a sink can encode them without
+ * formatting text first. Everything else arrives as a finished line.
+ *
+ * TextOutput (below) produces the original text lines; BinaryOutput writes
+ * the compact record format.
+ */
+public interface OutputSink {
+    /**
+     * Any other output line
+     */
+    void line(String line);
+
+    /**
+     * "Flight <id> scheduled - ETA: <eta>"
+     */
+    void scheduled(int flightID, int eta);
+
+    /**
+     * "Flight <id> is pending - no runway open"
+     */
+    void pending(int flightID);
+
+    /**
+     * "Flight <id> has landed at time <time>"
+     */
+    void landed(int flightID, int time);
+
+    /**
+     * "Updated ETAs: [<id>: <eta>, ...]" for the first count entries
+     * (flightIDs ascending)
+     */
+    void updatedETAs(int[] flightIDs, int[] etas, int count);
+
+    /**
+     * PrintSchedule entry "[<id>]"
+     */
+    void scheduleEntry(int flightID);
+
+    /**
+     * PrintActive entry "[flight<id>, airline<a>, runway<r>, start<s>, ETA<e>]"
+     */
+    void activeFlight(int flightID, int airlineID, int runwayID, int startTime, int eta);
+
+    /**
+     * Text lines produced since the last call, in order
+     * Sinks writing elsewhere return an empty list
+     */
+    List<String> take();
+}
+
+/**
+ * Text Output - Collects the output as the original text lines
+ * Lines are built by concatenation rather than String.format.
+ */
+class TextOutput implements OutputSink {
+    private List<String> lines = new ArrayList<>();
+
+    @Override
+    public void line(String line) {
+        lines.add(line);
+    }
+
+    @Override
+    public void scheduled(int flightID, int eta) {
+        lines.add("Flight " + flightID + " scheduled - ETA: " + eta);
+    }
+
+    @Override
+    public void pending(int flightID) {
+        lines.add("Flight " + flightID + " is pending - no runway open");
+    }
+
+    @Override
+    public void landed(int flightID, int time) {
+        lines.add("Flight " + flightID + " has landed at time " + time);
+    }
+
+    @Override
+    public void updatedETAs(int[] flightIDs, int[] etas, int count) {
+        StringBuilder line = new StringBuilder(16 + count * 12).append("Updated ETAs: [");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                line.append(", ");
+            }
+            line.append(flightIDs[i]).append(": ").append(etas[i]);
+        }
+        lines.add(line.append(']').toString());
+    }
+
+    @Override
+    public void scheduleEntry(int flightID) {
+        lines.add("[" + flightID + "]");
+    }
+
+    @Override
+    public void activeFlight(int flightID, int airlineID, int runwayID, int startTime, int eta) {
+        // Same text as Flight.toString
+        lines.add("[flight" + flightID + ", airline" + airlineID + ", runway" + runwayID
+                  + ", start" + startTime + ", ETA" + eta + "]");
+    }
+
+    @Override
+    public List<String> take() {
+        List<String> taken = lines;
+        lines = new ArrayList<>();
+        return taken;
+    }
+}
@@ -8,7 +8,7 @@
  * - increaseKey: O(log n) amortized
  * - delete: O(log n) amortized
  */
-public class PairingHeap {
+public class PairingHeap implements PendingQueue {
     private PairingNode root;
     private int size;
     
@@ -33,14 +33,13 @@ public class PairingHeap {
     
     /**
      * Insert a flight into the heap
-     * Returns the node handle for future updates
+     * The node handle for future updates is kept in flight.heapNode
      */
-    public PairingNode insert(Flight flight) {
+    public void insert(Flight flight) {
         PairingNode newNode = new PairingNode(flight);
         flight.heapNode = newNode;
         root = meld(root, newNode);
         size++;
-        return newNode;
     }
     
     /**
@@ -173,29 +172,45 @@ public class PairingHeap {
     
     /**
      * Merge pairs of siblings (two-pass algorithm)
+     * Iterative, so long sibling lists (a pass of many inserts) cannot
+     * overflow the stack
      */
     private PairingNode mergePairs(PairingNode first) {
-        if (first == null || first.sibling == null) {
-            if (first != null) {
-                first.prev = null;
-            }
-            return first;
+        if (first == null) {
+            return null;
         }
         
-        // First pass: merge pairs from left to right
-        PairingNode next = first.sibling;
-        PairingNode remaining = next.sibling;
-        
-        first.sibling = null;
-        first.prev = null;
-        next.sibling = null;
-        next.prev = null;
-        
-        PairingNode merged = meld(first, next);
-        PairingNode rest = mergePairs(remaining);
+        // First pass: merge pairs from left to right, stacking the results
+        // through their sibling links (rightmost on top)
+        PairingNode merged = null;
+        while (first != null) {
+            PairingNode next = first.sibling;
+            PairingNode remaining = next != null ? next.sibling : null;
+            
+            first.sibling = null;
+            first.prev = null;
+            PairingNode pair = first;
+            if (next != null) {
+                next.sibling = null;
+                next.prev = null;
+                pair = meld(first, next);
+            }
+            pair.sibling = merged;
+            merged = pair;
+            first = remaining;
+        }
         
         // Second pass: merge results from right to left
-        return meld(merged, rest);
+        PairingNode result = merged;
+        merged = merged.sibling;
+        result.sibling = null;
+        while (merged != null) {
+            PairingNode pair = merged;
+            merged = pair.sibling;
+            pair.sibling = null;
+            result = meld(pair, result);
+        }
+        return result;
     }
     
     /**
@@ -0,0 +1,21 @@
+/**
+ * Pending queue of a scheduling pass
+ * Orders flights for the greedy assignment: priority DESC, submitTime ASC,
+ * flightID ASC. Each pass clears the queue, inserts every unsatisfied
+ * flight, then drains it with extractMax, so an implementation may defer
+ * all ordering work to the first extractMax.
+ */
+public interface PendingQueue {
+    void clear();
+
+    void insert(Flight flight);
+
+    int size();
+
+    boolean isEmpty();
+
+    /**
+     * Remove and return the next flight in greedy order (null if empty)
+     */
+    Flight extractMax();
+}
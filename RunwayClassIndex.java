@@ -0,0 +1,158 @@
+/**
+ * Runway Class Index - Earliest free compatible runway per flight class
+ * Runways carry a capability mask (bit c set = accepts flight class c);
+ * a flight of class c may only use runways whose mask has bit c.
+ *
+ * One binary min-heap of packed (key, runwayIndex) longs per flight class,
+ * holding every compatible runway. A runway belongs to the heap of every
+ * class it accepts, so re-keying it after an assignment pushes a fresh
+ * entry into each of those heaps and leaves the old ones behind; entries
+ * whose key no longer matches the runway's current key are discarded when
+ * they reach the top (lazy invalidation).
+ *
+ * Key Operations (r runways, k classes):
+ * - earliest(c): O(log r) amortized
+ * - update: O(k log r)
+ * - heap for a class: built on first use, O(r)
+ *
+ * Works on runway indexes and int keys only, so it is shared by scheduleAll
+ * and the delay forecaster trials.
+ */
+public class RunwayClassIndex {
+    static final int MAX_CLASSES = 32;
+    static final int ALL_CLASSES = -1;   // Mask accepting every class
+
+    private final int[] masks;
+    private final int[] keys;        // Current key per runway index
+    private final long[][] heaps = new long[MAX_CLASSES][];
+    private final int[] sizes = new int[MAX_CLASSES];
+
+    /**
+     * Index over runways 0..n-1 (in runwayID order) with capability masks
+     */
+    public RunwayClassIndex(int[] masks) {
+        this.masks = masks;
+        this.keys = new int[masks.length];
+    }
+
+    /**
+     * Set every runway's key and refill the class heaps built so far
+     */
+    public void reset(int[] newKeys) {
+        System.arraycopy(newKeys, 0, keys, 0, keys.length);
+        for (int c = 0; c < MAX_CLASSES; c++) {
+            if (heaps[c] != null) {
+                sizes[c] = 0;
+                for (int i = 0; i < keys.length; i++) {
+                    if ((masks[i] & (1 << c)) != 0) {
+                        push(c, i);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Current key of a runway
+     */
+    public int key(int runway) {
+        return keys[runway];
+    }
+
+    /**
+     * Index of the compatible runway with the smallest (key, runwayID),
+     * or -1 if no runway accepts the class
+     */
+    public int earliest(int flightClass) {
+        long[] heap = heaps[flightClass];
+        if (heap == null) {
+            build(flightClass);
+            heap = heaps[flightClass];
+        }
+        while (sizes[flightClass] > 0) {
+            long top = heaps[flightClass][0];
+            int runway = (int) top;
+            if ((int) (top >>> 32) == keys[runway]) {
+                return runway;
+            }
+            pop(flightClass);   // Stale entry from before an update
+        }
+        return -1;
+    }
+
+    /**
+     * Re-key a runway after a flight was assigned to it (keys only grow)
+     */
+    public void update(int runway, int newKey) {
+        keys[runway] = newKey;
+        int mask = masks[runway];
+        for (int c = 0; c < MAX_CLASSES; c++) {
+            if (heaps[c] != null && (mask & (1 << c)) != 0) {
+                push(c, runway);
+            }
+        }
+    }
+
+    private void build(int c) {
+        heaps[c] = new long[Math.max(4, keys.length)];
+        sizes[c] = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if ((masks[i] & (1 << c)) != 0) {
+                push(c, i);
+            }
+        }
+    }
+
+    /**
+     * Entries order by key, then runway index (= runwayID order, as in
+     * RunwayHeap's tie-break)
+     */
+    private long entry(int runway) {
+        return ((long) keys[runway] << 32) | runway;
+    }
+
+    private void push(int c, int runway) {
+        long[] heap = heaps[c];
+        int size = sizes[c];
+        if (size == heap.length) {
+            heap = heaps[c] = java.util.Arrays.copyOf(heap, size * 2);
+        }
+        long key = entry(runway);
+        int i = size;
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (heap[parent] <= key) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = key;
+        sizes[c] = size + 1;
+    }
+
+    private void pop(int c) {
+        long[] heap = heaps[c];
+        int size = --sizes[c];
+        if (size == 0) {
+            return;
+        }
+        long key = heap[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= key) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = key;
+    }
+}
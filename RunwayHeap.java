@@ -8,7 +8,7 @@
  * - decreaseKey: O(log n)
  * - findMin: O(1)
  */
-public class RunwayHeap {
+public class RunwayHeap implements RunwayPool {
     private Runway[] heap;
     private int size;
     private int capacity;
@@ -177,11 +177,17 @@ public class RunwayHeap {
 
 /**
  * Runway class - Represents a runway in the system
+ * Closures are kept as sorted, disjoint, non-adjacent [start, end) windows
+ * during which no flight may start (a flight already on the runway finishes).
  */
 class Runway {
+    static final int OPEN_ENDED = Integer.MAX_VALUE;   // Closed until reopened
+    
     int runwayID;
     int nextFreeTime;
     int heapIndex;  // Position in heap (for efficient updates)
+    int capabilities = RunwayClassIndex.ALL_CLASSES;   // Bit c set = accepts flight class c
+    java.util.TreeMap<Integer, Integer> closures;   // start -> end, null if never closed
     
     public Runway(int runwayID, int nextFreeTime) {
         this.runwayID = runwayID;
@@ -189,6 +195,76 @@ class Runway {
         this.heapIndex = -1;
     }
     
+    /**
+     * Earliest time >= t at which a flight may start: O(log w) for w windows
+     * Returns OPEN_ENDED if the runway is closed from t on
+     */
+    int earliestOpen(int t) {
+        if (closures == null) {
+            return t;
+        }
+        java.util.Map.Entry<Integer, Integer> window = closures.floorEntry(t);
+        if (window != null && window.getValue() > t) {
+            return window.getValue();   // Windows never touch, so this is open
+        }
+        return t;
+    }
+    
+    /**
+     * Close the runway for [start, end), merging overlapping or adjacent windows
+     */
+    void close(int start, int end) {
+        if (closures == null) {
+            closures = new java.util.TreeMap<>();
+        }
+        java.util.Map.Entry<Integer, Integer> before = closures.floorEntry(start);
+        if (before != null && before.getValue() >= start) {
+            start = before.getKey();
+            end = Math.max(end, before.getValue());
+        }
+        java.util.Map.Entry<Integer, Integer> next;
+        while ((next = closures.ceilingEntry(start)) != null && next.getKey() <= end) {
+            end = Math.max(end, next.getValue());
+            closures.remove(next.getKey());
+        }
+        closures.put(start, end);
+    }
+    
+    /**
+     * End the closure in effect at time t (if any) at t
+     * Returns false if the runway is open at t
+     */
+    boolean reopen(int t) {
+        if (closures == null) {
+            return false;
+        }
+        java.util.Map.Entry<Integer, Integer> window = closures.floorEntry(t);
+        if (window == null || window.getValue() <= t) {
+            return false;
+        }
+        if (window.getKey() < t) {
+            closures.put(window.getKey(), t);
+        } else {
+            closures.remove(window.getKey());
+        }
+        return true;
+    }
+    
+    /**
+     * Drop windows that ended at or before t
+     */
+    void pruneClosures(int t) {
+        if (closures == null) {
+            return;
+        }
+        while (!closures.isEmpty() && closures.firstEntry().getValue() <= t) {
+            closures.pollFirstEntry();
+        }
+        if (closures.isEmpty()) {
+            closures = null;
+        }
+    }
+    
     @Override
     public String toString() {
         return String.format("Runway %d (free at %d)", runwayID, nextFreeTime);
@@ -0,0 +1,17 @@
+/**
+ * Runways of a scheduling pass ordered by (nextFreeTime, runwayID)
+ * A runway's key is read when it is inserted; after an assignment it is
+ * extracted, given its new nextFreeTime and inserted again.
+ */
+public interface RunwayPool {
+    void insert(Runway runway);
+
+    boolean isEmpty();
+
+    /**
+     * Runway with the earliest nextFreeTime, not removed (null if empty)
+     */
+    Runway findMin();
+
+    Runway extractMin();
+}
@@ -0,0 +1,210 @@
+import java.util.*;
+
+/**
+ * Runway Telemetry - Utilisation and queue statistics kept incrementally
+ * Updated in O(1) on the events that change them (runways added, flight
+ * submitted, flight removed before starting, flight started), so nothing
+ * is rescanned or re-simulated to report them.
+ *
+ * Per runway: flights started, busy time, utilisation since the runway was
+ * added, and idle gaps between consecutive flights.
+ * Queue: pending depth (flights submitted but not started) with its
+ * maximum and time-weighted mean, and the wait from queue entry to startTime.
+ *
+ * The time-weighted depth is the sum of every flight's time in the queue:
+ *   area(now) = closedArea + pending * now - sum(queue entry of pending)
+ * so it is exact at any time without sampling. A flight enters the queue
+ * at its submitTime, or at the first event if it was submitted before it
+ * (flights restored from a FlightStore), so the statistics cover only the
+ * time since the first event.
+ *
+ * Periodic dump to stderr every N time units: -Dgator.stats.dumpInterval=N
+ */
+public class RunwayTelemetry {
+    static final int DUMP_INTERVAL = Integer.getInteger("gator.stats.dumpInterval", 0);
+
+    // Per runway, indexed by runwayID (IDs are assigned 1..n)
+    private int runways;
+    private int[] addedAt = new int[16];
+    private int[] starts = new int[16];
+    private long[] busyClosed = new long[16];   // Busy time of all but the latest flight
+    private int[] lastStart = new int[16];      // Latest flight on the runway
+    private int[] lastEnd = new int[16];
+    private int[] gaps = new int[16];
+    private long[] gapTotal = new long[16];
+    private int[] gapMax = new int[16];
+
+    // Pending queue
+    private int origin = -1;            // Time of the first event
+    private int pending;
+    private int maxPending;
+    private long pendingEntrySum;
+    private long closedArea;            // Queue time of flights no longer pending
+
+    // Waits (queue entry -> startTime) of started flights
+    private long started;
+    private long waitSum;
+    private int waitMax;
+
+    private boolean dumpEnabled = DUMP_INTERVAL > 0;
+    private int nextDump = DUMP_INTERVAL;
+
+    /**
+     * Independent copy for forks (forks never dump)
+     */
+    public RunwayTelemetry copy() {
+        RunwayTelemetry copy = new RunwayTelemetry();
+        copy.runways = runways;
+        copy.addedAt = addedAt.clone();
+        copy.starts = starts.clone();
+        copy.busyClosed = busyClosed.clone();
+        copy.lastStart = lastStart.clone();
+        copy.lastEnd = lastEnd.clone();
+        copy.gaps = gaps.clone();
+        copy.gapTotal = gapTotal.clone();
+        copy.gapMax = gapMax.clone();
+        copy.origin = origin;
+        copy.pending = pending;
+        copy.maxPending = maxPending;
+        copy.pendingEntrySum = pendingEntrySum;
+        copy.closedArea = closedArea;
+        copy.started = started;
+        copy.waitSum = waitSum;
+        copy.waitMax = waitMax;
+        copy.dumpEnabled = false;
+        return copy;
+    }
+
+    /**
+     * count runways were added at time (next IDs in sequence)
+     */
+    public void runwaysAdded(int count, int time) {
+        if (origin < 0) {
+            origin = time;
+        }
+        int needed = runways + count + 1;
+        if (needed > addedAt.length) {
+            int capacity = Math.max(needed, addedAt.length * 2);
+            addedAt = Arrays.copyOf(addedAt, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            busyClosed = Arrays.copyOf(busyClosed, capacity);
+            lastStart = Arrays.copyOf(lastStart, capacity);
+            lastEnd = Arrays.copyOf(lastEnd, capacity);
+            gaps = Arrays.copyOf(gaps, capacity);
+            gapTotal = Arrays.copyOf(gapTotal, capacity);
+            gapMax = Arrays.copyOf(gapMax, capacity);
+        }
+        for (int i = 0; i < count; i++) {
+            int id = ++runways;
+            addedAt[id] = time;
+            lastStart[id] = time;
+            lastEnd[id] = time;
+        }
+    }
+
+    /**
+     * A flight entered the pending queue
+     */
+    public void flightSubmitted(Flight flight) {
+        if (origin < 0) {
+            origin = flight.submitTime;
+        }
+        pending++;
+        pendingEntrySum += queuedAt(flight);
+        maxPending = Math.max(maxPending, pending);
+    }
+
+    /**
+     * A flight left the queue without starting (canceled or grounded)
+     */
+    public void flightRemoved(Flight flight, int time) {
+        leaveQueue(flight, time);
+    }
+
+    /**
+     * A flight started on its runway (state became IN_PROGRESS)
+     */
+    public void flightStarted(Flight flight) {
+        leaveQueue(flight, flight.startTime);
+
+        int wait = flight.startTime - queuedAt(flight);
+        started++;
+        waitSum += wait;
+        waitMax = Math.max(waitMax, wait);
+
+        int id = flight.runwayID;
+        if (id <= 0 || id > runways) {
+            return;
+        }
+        int gap = flight.startTime - lastEnd[id];
+        if (gap > 0) {
+            gaps[id]++;
+            gapTotal[id] += gap;
+            gapMax[id] = Math.max(gapMax[id], gap);
+        }
+        busyClosed[id] += lastEnd[id] - lastStart[id];
+        lastStart[id] = flight.startTime;
+        lastEnd[id] = flight.ETA;
+        starts[id]++;
+    }
+
+    private void leaveQueue(Flight flight, int time) {
+        pending--;
+        pendingEntrySum -= queuedAt(flight);
+        closedArea += time - queuedAt(flight);
+    }
+
+    private int queuedAt(Flight flight) {
+        return Math.max(flight.submitTime, origin);
+    }
+
+    /**
+     * Busy time of a runway up to now (counts the running flight so far)
+     */
+    private long busy(int id, int now) {
+        long running = Math.max(0, Math.min(now, lastEnd[id]) - lastStart[id]);
+        return busyClosed[id] + running;
+    }
+
+    /**
+     * One line per runway plus a queue summary
+     */
+    public List<String> report(int now) {
+        List<String> lines = new ArrayList<>();
+        if (runways == 0) {
+            lines.add("No runways");
+            return lines;
+        }
+
+        for (int id = 1; id <= runways; id++) {
+            long busy = busy(id, now);
+            long elapsed = now - addedAt[id];
+            double utilisation = elapsed > 0 ? 100.0 * busy / elapsed : 0.0;
+            lines.add(String.format("Runway %d: starts %d, busy %d/%d (%.1f%%), idle gaps %d (total %d, max %d)",
+                                    id, starts[id], busy, elapsed, utilisation,
+                                    gaps[id], gapTotal[id], gapMax[id]));
+        }
+
+        long area = closedArea + (long) pending * now - pendingEntrySum;
+        long span = now - origin;
+        double meanDepth = span > 0 ? (double) area / span : pending;
+        double meanWait = started > 0 ? (double) waitSum / started : 0.0;
+        lines.add(String.format("Queue: pending %d (max %d), mean depth %.2f, started %d, average wait %.2f (max %d)",
+                                pending, maxPending, meanDepth, started, meanWait, waitMax));
+        return lines;
+    }
+
+    /**
+     * Print the report to stderr each time now crosses a dump interval
+     */
+    public void maybeDump(int now) {
+        if (!dumpEnabled || now < nextDump) {
+            return;
+        }
+        nextDump = (now / DUMP_INTERVAL + 1) * DUMP_INTERVAL;
+        System.err.println("=== Runway stats at time " + now + " ===");
+        for (String line : report(now)) {
+            System.err.println(line);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Scheduler Client - Local client for SchedulerServer
+ * Pipelines every command of an input file (or stdin) to the server without
+ * waiting for responses, and prints the response stream to stdout.
+ * The printed output matches <input>_output_file.txt from file mode.
+ *
+ * Usage: java SchedulerClient <host> <port> [input_filename | -]
+ */
+public class SchedulerClient {
+
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: java SchedulerClient <host> <port> [input_filename | -]");
+            System.exit(1);
+        }
+
+        String host = args[0];
+        int port = Integer.parseInt(args[1]);
+        String inputFilename = args.length == 3 ? args[2] : "-";
+
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+
+            // Sender thread: stream all commands, then half-close
+            Thread sender = new Thread(() -> {
+                try {
+                    InputStream in = inputFilename.equals("-") ? System.in : new FileInputStream(inputFilename);
+                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                        BufferedWriter writer = new BufferedWriter(
+                            new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            writer.write(line);
+                            writer.newLine();
+                        }
+                        writer.flush();
+                        socket.shutdownOutput();
+                    }
+                } catch (IOException e) {
+                    System.err.println("Error: send failed - " + e.getMessage());
+                }
+            }, "gator-client-sender");
+            sender.start();
+
+            // Receive responses until the server closes the connection
+            BufferedReader responses = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            String line;
+            while ((line = responses.readLine()) != null) {
+                out.write(line);
+                out.newLine();
+            }
+            out.flush();
+            sender.join();
+
+        } catch (IOException e) {
+            System.err.println("Error: IO exception - " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
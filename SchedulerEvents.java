@@ -0,0 +1,99 @@
+import jdk.jfr.*;
+
+/**
+ * Java Flight Recorder event types for the scheduler
+ * Shown under "Gator Air Traffic" in JMC so scheduling work can be lined
+ * up against GC, allocation and I/O events in the same recording.
+ *
+ * Events are only committed while a recording has them enabled; otherwise
+ * begin/end/shouldCommit are cheap no-ops the JIT can inline.
+ */
+public final class SchedulerEvents {
+    /**
+     * GroundHold removals at or above this size emit an event
+     * Override with -Dgator.jfr.groundHoldThreshold=N
+     */
+    static final int LARGE_GROUND_HOLD = Integer.getInteger("gator.jfr.groundHoldThreshold", 100);
+
+    private SchedulerEvents() {
+    }
+
+    /**
+     * One input command, from parse to returned output
+     */
+    @Name("gator.Command")
+    @Label("Scheduler Command")
+    @Category({"Gator Air Traffic", "Commands"})
+    @Description("Execution of one scheduler command")
+    @StackTrace(false)
+    public static class CommandEvent extends Event {
+        @Label("Command")
+        String command;
+
+        @Label("Arguments")
+        String arguments;
+
+        @Label("Output Lines")
+        int outputLines;
+    }
+
+    /**
+     * One greedy scheduleAll pass
+     */
+    @Name("gator.SchedulePass")
+    @Label("Schedule Pass")
+    @Category({"Gator Air Traffic", "Scheduling"})
+    @Description("Greedy reassignment of all unsatisfied flights to runways")
+    @StackTrace(false)
+    public static class SchedulePassEvent extends Event {
+        @Label("Current Time")
+        int currentTime;
+
+        @Label("Flights Scheduled")
+        int flights;
+
+        @Label("Runways")
+        int runways;
+
+        @Label("Active Flights")
+        int activeFlights;
+    }
+
+    /**
+     * One Phase 1 settlement batch in advanceTime
+     */
+    @Name("gator.Settlement")
+    @Label("Settlement Batch")
+    @Category({"Gator Air Traffic", "Scheduling"})
+    @Description("Phase 1 of advanceTime: flights landed between two times")
+    @StackTrace(false)
+    public static class SettlementEvent extends Event {
+        @Label("From Time")
+        int fromTime;
+
+        @Label("To Time")
+        int toTime;
+
+        @Label("Flights Landed")
+        int landed;
+    }
+
+    /**
+     * A GroundHold that removed many flights
+     */
+    @Name("gator.GroundHold")
+    @Label("Large GroundHold")
+    @Category({"Gator Air Traffic", "Commands"})
+    @Description("GroundHold removing at least gator.jfr.groundHoldThreshold flights")
+    @StackTrace(false)
+    public static class GroundHoldEvent extends Event {
+        @Label("Airline Low")
+        int airlineLow;
+
+        @Label("Airline High")
+        int airlineHigh;
+
+        @Label("Flights Removed")
+        int removed;
+    }
+}
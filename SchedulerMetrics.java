@@ -0,0 +1,245 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.*;
+import javax.management.ObjectName;
+
+/**
+ * Scheduler Metrics - Low-overhead hot-path instrumentation
+ * Latency histograms per command and per scheduling phase, plus counters
+ * for rescheduled, landed and ETA-updated flights and current heap sizes.
+ *
+ * Enabled with -Dgator.metrics=true. ENABLED is a static final constant, so
+ * when it is false the JIT folds every "if (SchedulerMetrics.ENABLED)" guard
+ * away and the instrumentation costs nothing.
+ *
+ * Exposed through JMX (gator:type=SchedulerMetrics) and, when
+ * -Dgator.metrics.dumpSeconds=N is set, a periodic text dump to stderr.
+ */
+public class SchedulerMetrics implements SchedulerMetricsMBean {
+    public static final boolean ENABLED = Boolean.getBoolean("gator.metrics");
+
+    /**
+     * Timed phases inside a command
+     */
+    enum Phase {
+        SCHEDULE_ALL,   // scheduleAll greedy pass
+        SETTLE,         // advanceTime Phase 1 (landings)
+        ETA_CAPTURE,    // Snapshot of ETAs before an operation
+        ETA_DIFF,       // Diff and format of "Updated ETAs"
+        OUTPUT          // Writing a command's output lines
+    }
+
+    private static final SchedulerMetrics INSTANCE = new SchedulerMetrics();
+
+    // Latency histograms (nanoseconds); one per command of the grammar, and
+    // one for every other name, filled once and only read afterwards
+    static final String INVALID_COMMAND = "Invalid";
+    private static final Map<String, LatencyHistogram> commandLatency;
+    private static final LatencyHistogram[] phaseLatency = new LatencyHistogram[Phase.values().length];
+
+    // Flights assigned per scheduleAll pass
+    private static final LatencyHistogram rescheduleSize = new LatencyHistogram();
+
+    // Counters
+    private static long flightsRescheduled;
+    private static long flightsLanded;
+    private static long etaUpdatesEmitted;
+
+    // Gauges (sizes after the last scheduling pass)
+    private static int activeFlights;
+    private static int pendingQueueSize;
+    private static int timetableSize;
+    private static int runways;
+
+    private static ScheduledExecutorService dumper;
+
+    static {
+        Map<String, LatencyHistogram> commands = new LinkedHashMap<>();
+        for (String command : BinaryCommands.NAMES) {
+            if (command != null) {
+                commands.putIfAbsent(command, new LatencyHistogram());
+            }
+        }
+        commands.put(INVALID_COMMAND, new LatencyHistogram());
+        commandLatency = Collections.unmodifiableMap(commands);
+        for (Phase phase : Phase.values()) {
+            phaseLatency[phase.ordinal()] = new LatencyHistogram();
+        }
+    }
+
+    private SchedulerMetrics() {
+    }
+
+    /**
+     * Register the MBean and start the periodic dump if configured
+     */
+    public static synchronized void start() {
+        if (!ENABLED) {
+            return;
+        }
+
+        try {
+            ObjectName name = new ObjectName("gator:type=SchedulerMetrics");
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, name);
+            }
+        } catch (Exception e) {
+            System.err.println("Warning: could not register metrics MBean - " + e.getMessage());
+        }
+
+        long dumpSeconds = Long.getLong("gator.metrics.dumpSeconds", 0L);
+        if (dumpSeconds > 0 && dumper == null) {
+            dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "gator-metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumper.scheduleAtFixedRate(() -> System.err.print(report()),
+                                       dumpSeconds, dumpSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stop the periodic dump and print a final report
+     */
+    public static synchronized void stop() {
+        if (!ENABLED) {
+            return;
+        }
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+        System.err.print(report());
+    }
+
+    /**
+     * Record the latency of a command since start (System.nanoTime)
+     * Names outside the command grammar all count as INVALID_COMMAND, so
+     * clients cannot add histograms.
+     */
+    static void recordCommand(String command, long start) {
+        long elapsed = System.nanoTime() - start;
+        LatencyHistogram histogram = commandLatency.get(command);
+        if (histogram == null) {
+            histogram = commandLatency.get(INVALID_COMMAND);
+        }
+        histogram.record(elapsed);
+    }
+
+    /**
+     * Record the latency of a phase since start (System.nanoTime)
+     */
+    static void recordPhase(Phase phase, long start) {
+        phaseLatency[phase.ordinal()].record(System.nanoTime() - start);
+    }
+
+    /**
+     * Record one scheduling pass and the structure sizes after it
+     */
+    static void recordReschedule(int flights, int active, int pending, int scheduled, int runwayCount) {
+        flightsRescheduled += flights;
+        rescheduleSize.record(flights);
+        activeFlights = active;
+        pendingQueueSize = pending;
+        timetableSize = scheduled;
+        runways = runwayCount;
+    }
+
+    static void recordLanded(int count) {
+        flightsLanded += count;
+    }
+
+    static void recordEtaUpdates(int count) {
+        etaUpdatesEmitted += count;
+    }
+
+    /**
+     * Render all metrics as a text table (latencies in microseconds)
+     */
+    static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== Scheduler metrics ===\n");
+        sb.append(String.format("%-16s %10s %10s %10s %10s %10s %10s%n",
+                                "operation", "count", "mean_us", "p50_us", "p90_us", "p99_us", "max_us"));
+        for (Map.Entry<String, LatencyHistogram> entry : commandLatency.entrySet()) {
+            appendLatency(sb, entry.getKey(), entry.getValue());
+        }
+        for (Phase phase : Phase.values()) {
+            appendLatency(sb, phase.name(), phaseLatency[phase.ordinal()]);
+        }
+        sb.append(String.format("flights rescheduled: %d (per pass p50 %d, p99 %d, max %d)%n",
+                                flightsRescheduled, rescheduleSize.percentile(50),
+                                rescheduleSize.percentile(99), rescheduleSize.max()));
+        sb.append(String.format("flights landed: %d%n", flightsLanded));
+        sb.append(String.format("ETA updates emitted: %d%n", etaUpdatesEmitted));
+        sb.append(String.format("active flights: %d, pending queue: %d, timetable: %d, runways: %d%n",
+                                activeFlights, pendingQueueSize, timetableSize, runways));
+        return sb.toString();
+    }
+
+    private static void appendLatency(StringBuilder sb, String name, LatencyHistogram histogram) {
+        if (histogram.count() == 0) {
+            return;
+        }
+        sb.append(String.format("%-16s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n", name,
+                                histogram.count(), histogram.mean() / 1000.0,
+                                histogram.percentile(50) / 1000.0, histogram.percentile(90) / 1000.0,
+                                histogram.percentile(99) / 1000.0, histogram.max() / 1000.0));
+    }
+
+    // ---- SchedulerMetricsMBean ----
+
+    @Override
+    public String getReport() {
+        return report();
+    }
+
+    @Override
+    public long getFlightsRescheduled() {
+        return flightsRescheduled;
+    }
+
+    @Override
+    public long getFlightsLanded() {
+        return flightsLanded;
+    }
+
+    @Override
+    public long getEtaUpdatesEmitted() {
+        return etaUpdatesEmitted;
+    }
+
+    @Override
+    public int getActiveFlights() {
+        return activeFlights;
+    }
+
+    @Override
+    public int getPendingQueueSize() {
+        return pendingQueueSize;
+    }
+
+    @Override
+    public int getTimetableSize() {
+        return timetableSize;
+    }
+
+    @Override
+    public int getRunways() {
+        return runways;
+    }
+
+    @Override
+    public double getLatencyPercentileMicros(String operation, double percentile) {
+        LatencyHistogram histogram = commandLatency.get(operation);
+        if (histogram == null) {
+            try {
+                histogram = phaseLatency[Phase.valueOf(operation).ordinal()];
+            } catch (IllegalArgumentException e) {
+                return 0.0;
+            }
+        }
+        return histogram.percentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * JMX management interface for SchedulerMetrics
+ * Registered as gator:type=SchedulerMetrics when metrics are enabled
+ */
+public interface SchedulerMetricsMBean {
+    /**
+     * Full text report (same format as the periodic dump)
+     */
+    String getReport();
+
+    long getFlightsRescheduled();
+
+    long getFlightsLanded();
+
+    long getEtaUpdatesEmitted();
+
+    int getActiveFlights();
+
+    int getPendingQueueSize();
+
+    int getTimetableSize();
+
+    int getRunways();
+
+    /**
+     * Latency percentile in microseconds for a command name (e.g. "SubmitFlight")
+     * or a phase name (e.g. "SCHEDULE_ALL")
+     */
+    double getLatencyPercentileMicros(String operation, double percentile);
+}
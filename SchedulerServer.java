@@ -0,0 +1,331 @@
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Scheduler Server - Long-lived TCP front end for AirTrafficScheduler
+ * Accepts the same line-based command grammar as the input file and
+ * streams back the same output lines, in command order per connection.
+ *
+ * Threading:
+ * - I/O thread: one NIO selector for accept/read/write on every connection.
+ *   It splits incoming bytes into command lines and queues them.
+ * - Scheduler thread: the single writer. It drains the command queue in
+ *   batches, executes each command and hands the encoded output back to the
+ *   owning connection.
+ *
+ * Clients may pipeline: any number of commands can be sent without waiting.
+ * Reading from a connection pauses while it has MAX_IN_FLIGHT commands
+ * queued or OUTPUT_HIGH_WATER bytes of responses not yet written to its
+ * socket, and resumes once both are down to half the commands and
+ * OUTPUT_LOW_WATER bytes. A client that sends fast, or never reads its
+ * responses, holds at most the high-water mark plus the output of its
+ * queued commands.
+ *
+ * A connection ends after its Quit() response (or its EOF) has been flushed.
+ * The server itself keeps running until shutdown() is called.
+ *
+ * With a CommandShipper set, the scheduler thread ships every command it
+ * executes (except Quit) to a standby, in execution order.
+ */
+public class SchedulerServer {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+    private static final int MAX_IN_FLIGHT = 4096;
+    private static final long OUTPUT_HIGH_WATER = 4 * 1024 * 1024;
+    private static final long OUTPUT_LOW_WATER = 1024 * 1024;
+    private static final int MAX_BATCH = 1024;
+
+    private final AirTrafficScheduler scheduler;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final BlockingQueue<QueuedCommand> commands = new LinkedBlockingQueue<>();
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private volatile boolean running = true;
+    private Thread schedulerThread;
+    private CommandShipper shipper;
+
+    /**
+     * Bind the server socket (port 0 picks a free port)
+     */
+    public SchedulerServer(AirTrafficScheduler scheduler, int port) throws IOException {
+        this.scheduler = scheduler;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(port));
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Port the server is listening on
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Ship executed commands to a standby (set before run)
+     */
+    public void setShipper(CommandShipper shipper) {
+        this.shipper = shipper;
+    }
+
+    /**
+     * Run the I/O loop on the calling thread until shutdown()
+     */
+    public void run() throws IOException {
+        schedulerThread = new Thread(this::schedulerLoop, "gator-scheduler");
+        schedulerThread.start();
+
+        try {
+            while (running) {
+                selector.select();
+
+                // Output produced by the scheduler thread since the last wakeup
+                Connection ready;
+                while ((ready = pendingWrites.poll()) != null) {
+                    ready.writeQueued.set(false);
+                    if (ready.key.isValid()) {
+                        try {
+                            flush(ready);
+                        } catch (IOException e) {
+                            close(ready);
+                        }
+                    }
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Connection connection = (Connection) key.attachment();
+                            if (key.isReadable()) {
+                                read(connection);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                flush(connection);
+                            }
+                        }
+                    } catch (IOException e) {
+                        close((Connection) key.attachment());
+                    }
+                }
+            }
+        } finally {
+            running = false;
+            schedulerThread.interrupt();
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        }
+    }
+
+    /**
+     * Stop accepting and processing; run() returns shortly after
+     */
+    public void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    // ---- I/O thread ----
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+    }
+
+    /**
+     * Read available bytes and queue every complete line as a command
+     */
+    private void read(Connection connection) throws IOException {
+        readBuffer.clear();
+        int n = connection.channel.read(readBuffer);
+        if (n < 0) {
+            // A last line without a trailing newline still counts
+            String last = connection.line.toString(StandardCharsets.UTF_8).trim();
+            connection.line.reset();
+            if (!connection.inputClosed && !last.isEmpty()) {
+                submit(connection, last);
+            }
+            connection.inputClosed = true;
+            connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+            closeIfDone(connection);
+            return;
+        }
+        readBuffer.flip();
+
+        while (readBuffer.hasRemaining() && !connection.inputClosed) {
+            byte b = readBuffer.get();
+            if (b == '\n') {
+                String line = connection.line.toString(StandardCharsets.UTF_8).trim();
+                connection.line.reset();
+                if (!line.isEmpty()) {
+                    submit(connection, line);
+                }
+            } else if (connection.line.size() < MAX_LINE_LENGTH) {
+                connection.line.write(b);
+            }
+        }
+
+        updateReading(connection);
+    }
+
+    private void submit(Connection connection, String line) {
+        // Same as the file loop: nothing after Quit is read
+        if (line.startsWith("Quit")) {
+            connection.inputClosed = true;
+            connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+        }
+        connection.inFlight.incrementAndGet();
+        commands.add(new QueuedCommand(connection, line));
+    }
+
+    /**
+     * Write queued output until drained or the socket buffer is full
+     */
+    private void flush(Connection connection) throws IOException {
+        ByteBuffer buffer;
+        while ((buffer = connection.output.peek()) != null) {
+            connection.channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_WRITE);
+                updateReading(connection);
+                return;
+            }
+            connection.output.poll();
+            connection.outputBytes.addAndGet(-buffer.capacity());
+        }
+        connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_WRITE);
+        updateReading(connection);
+        closeIfDone(connection);
+    }
+
+    /**
+     * Pause reading while commands or unwritten output pile up, resume once
+     * both are below the low-water marks (in between, leave it as it is)
+     */
+    private void updateReading(Connection connection) {
+        if (connection.inputClosed) {
+            return;
+        }
+        int inFlight = connection.inFlight.get();
+        long queued = connection.outputBytes.get();
+        if (inFlight >= MAX_IN_FLIGHT || queued >= OUTPUT_HIGH_WATER) {
+            connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+        } else if (inFlight < MAX_IN_FLIGHT / 2 && queued < OUTPUT_LOW_WATER) {
+            connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_READ);
+        }
+    }
+
+    private void closeIfDone(Connection connection) {
+        if (connection.inputClosed && connection.inFlight.get() == 0 && connection.output.isEmpty()) {
+            close(connection);
+        }
+    }
+
+    private void close(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // Already closed by the peer
+        }
+    }
+
+    // ---- Scheduler thread ----
+
+    /**
+     * Single writer: execute queued commands in arrival order
+     */
+    private void schedulerLoop() {
+        List<QueuedCommand> batch = new ArrayList<>(MAX_BATCH);
+        StringBuilder text = new StringBuilder();
+        try {
+            while (running) {
+                batch.add(commands.take());
+                commands.drainTo(batch, MAX_BATCH - 1);
+
+                for (QueuedCommand command : batch) {
+                    text.setLength(0);
+                    for (String outputLine : gatorAirTrafficScheduler.parseAndExecute(scheduler, command.line)) {
+                        text.append(outputLine).append('\n');
+                    }
+                    if (shipper != null && !command.line.startsWith("Quit")) {
+                        shipper.ship(command.line);
+                    }
+
+                    Connection connection = command.connection;
+                    if (text.length() > 0) {
+                        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+                        connection.outputBytes.addAndGet(bytes.length);
+                        connection.output.add(ByteBuffer.wrap(bytes));
+                    }
+                    connection.inFlight.decrementAndGet();
+                    if (connection.writeQueued.compareAndSet(false, true)) {
+                        pendingWrites.add(connection);
+                    }
+                }
+                batch.clear();
+                selector.wakeup();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Per-client state shared by the I/O and scheduler threads
+     */
+    private static class Connection {
+        final SocketChannel channel;
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        final Queue<ByteBuffer> output = new ConcurrentLinkedQueue<>();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicLong outputBytes = new AtomicLong();      // Queued in output, not yet written
+        final AtomicBoolean writeQueued = new AtomicBoolean();
+        SelectionKey key;
+        boolean inputClosed;   // Quit() seen or EOF (I/O thread only)
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * A command line waiting for the scheduler thread
+     */
+    private static class QueuedCommand {
+        final Connection connection;
+        final String line;
+
+        QueuedCommand(Connection connection, String line) {
+            this.connection = connection;
+            this.line = line;
+        }
+    }
+}
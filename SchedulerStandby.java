@@ -0,0 +1,104 @@
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Scheduler Standby - Hot replica of a primary fed by its command log
+ * Waits for a primary's CommandShipper to connect, then applies every
+ * shipped command to its own scheduler as it arrives, discarding the
+ * output. The replica is therefore at most one batch behind the primary.
+ *
+ * When the log ends (the primary exited, was killed, or its connection
+ * dropped) run() returns and the caller promotes the standby, e.g. by
+ * serving the replicated scheduler with SchedulerServer: failover costs
+ * no replay. A lost primary is noticed through its connection closing, so
+ * this covers the primary process failing, not its host going silent.
+ *
+ * A primary is only accepted if its scheduler options match the standby's,
+ * since the same commands under other options give another schedule.
+ */
+public class SchedulerStandby {
+    private final AirTrafficScheduler scheduler;
+    private final String options;
+    private final ServerSocket serverSocket;
+    private long applied;
+
+    /**
+     * Listen for a primary (port 0 picks a free port)
+     * options are the scheduler options the primary must send
+     */
+    public SchedulerStandby(AirTrafficScheduler scheduler, String options, int port) throws IOException {
+        this.scheduler = scheduler;
+        this.options = options;
+        this.serverSocket = new ServerSocket(port);
+    }
+
+    /**
+     * Port the standby is listening on
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Number of commands applied so far
+     */
+    public long applied() {
+        return applied;
+    }
+
+    /**
+     * Replicate one primary until its log ends
+     * Primaries with other options are turned away and the wait goes on.
+     */
+    public void run() throws IOException {
+        try {
+            while (true) {
+                try (Socket socket = serverSocket.accept()) {
+                    BufferedReader log = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), 64 * 1024);
+                    String header = log.readLine();
+                    if (header == null || !header.startsWith(CommandShipper.HEADER)) {
+                        System.err.println("Error: not a command log from " + socket.getRemoteSocketAddress());
+                        continue;
+                    }
+                    String primaryOptions = header.substring(CommandShipper.HEADER.length());
+                    if (!primaryOptions.equals(options)) {
+                        System.err.println("Error: primary options [" + primaryOptions
+                                           + "] do not match standby options [" + options + "]");
+                        continue;
+                    }
+                    replicate(log);
+                    return;
+                }
+            }
+        } finally {
+            serverSocket.close();
+        }
+    }
+
+    /**
+     * Apply numbered commands until the log ends or breaks off
+     */
+    private void replicate(BufferedReader log) {
+        try {
+            String line;
+            while ((line = log.readLine()) != null) {
+                // A line cut off by a broken connection has lost its ')' and
+                // is rejected by the parser without touching the schedule
+                int space = line.indexOf(' ');
+                long sequence = space > 0 ? Long.parseLong(line.substring(0, space)) : -1;
+                if (sequence != applied + 1) {
+                    System.err.println("Error: command log out of sequence at " + line);
+                    return;
+                }
+                gatorAirTrafficScheduler.parseAndExecute(scheduler, line.substring(space + 1));
+                applied = sequence;
+            }
+        } catch (IOException | NumberFormatException e) {
+            // A killed primary may reset the connection: promote all the same
+            System.err.println("Command log ended - " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Scheduling Engine - The data structures behind an AirTrafficScheduler
+ * An engine supplies the pending queue, timetable and runway pool. The
+ * two-phase update and the greedy assignment stay in AirTrafficScheduler,
+ * so every engine produces the same output and engines can be compared on
+ * the same trace for throughput alone.
+ *
+ * Engines are registered by name and chosen with --engine=<name>:
+ *   default   priority buckets when a pass spans a small priority range,
+ *             else bulk-sorted pending queue; binary timetable and runway heaps
+ *   bucket    priority buckets, else a pairing heap; binary heaps
+ *   pairing   pairing heap for every pass, binary heaps
+ *   dary4     bulk-sorted pending queue, 4-ary timetable and runway heaps
+ *   dary8     same with 8-ary heaps
+ */
+public interface SchedulingEngine {
+    String name();
+
+    PendingQueue newPendingQueue();
+
+    Timetable newTimetable();
+
+    /**
+     * Pool for one scheduling pass over the given number of runways
+     */
+    RunwayPool newRunwayPool(int capacity);
+
+    /**
+     * Engine registered under name, or null
+     */
+    static SchedulingEngine forName(String name) {
+        return Engines.ENGINES.get(name);
+    }
+
+    /**
+     * Names of all registered engines
+     */
+    static Set<String> names() {
+        return Collections.unmodifiableSet(Engines.ENGINES.keySet());
+    }
+
+    /**
+     * Add an engine, replacing any with the same name
+     */
+    static void register(SchedulingEngine engine) {
+        Engines.ENGINES.put(engine.name(), engine);
+    }
+
+    SchedulingEngine DEFAULT = new Engines.Standard("default",
+        () -> new BucketPendingQueue(new SortedPendingQueue()),
+        () -> new CompletionHeap(100), RunwayHeap::new);
+}
+
+/**
+ * Registry and the built-in engines
+ */
+final class Engines {
+    static final Map<String, SchedulingEngine> ENGINES = new LinkedHashMap<>();
+
+    static {
+        SchedulingEngine.register(SchedulingEngine.DEFAULT);
+        SchedulingEngine.register(new Standard("bucket",
+            BucketPendingQueue::new, () -> new CompletionHeap(100), RunwayHeap::new));
+        SchedulingEngine.register(new Standard("pairing",
+            PairingHeap::new, () -> new CompletionHeap(100), RunwayHeap::new));
+        for (int arity : new int[] {4, 8}) {
+            SchedulingEngine.register(new Standard("dary" + arity,
+                SortedPendingQueue::new, () -> new DaryCompletionHeap(100, arity),
+                capacity -> new DaryRunwayHeap(capacity, arity)));
+        }
+    }
+
+    private Engines() {
+    }
+
+    /**
+     * Engine assembled from constructors
+     */
+    static final class Standard implements SchedulingEngine {
+        private final String name;
+        private final Supplier<PendingQueue> pendingQueue;
+        private final Supplier<Timetable> timetable;
+        private final IntFunction<RunwayPool> runwayPool;
+
+        Standard(String name, Supplier<PendingQueue> pendingQueue, Supplier<Timetable> timetable,
+                 IntFunction<RunwayPool> runwayPool) {
+            this.name = name;
+            this.pendingQueue = pendingQueue;
+            this.timetable = timetable;
+            this.runwayPool = runwayPool;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public PendingQueue newPendingQueue() {
+            return pendingQueue.get();
+        }
+
+        @Override
+        public Timetable newTimetable() {
+            return timetable.get();
+        }
+
+        @Override
+        public RunwayPool newRunwayPool(int capacity) {
+            return runwayPool.apply(capacity);
+        }
+    }
+}
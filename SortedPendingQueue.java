@@ -0,0 +1,186 @@
+import java.util.*;
+
+/**
+ * Sorted Pending Queue - Bulk alternative to PairingHeap for full rebuilds
+ * scheduleAll always rebuilds the pending queue from scratch and then
+ * drains it completely, so instead of n heap inserts and n extractMax
+ * calls the flights are collected, sorted once on the first extractMax,
+ * and read back in order.
+ *
+ * Each flight becomes one packed long key, most significant first:
+ *   (maxPriority - priority) | (submitTime - minSubmit) | slot
+ * so ascending key order is extractMax order (priority DESC, submitTime
+ * ASC, flightID ASC). The slot orders like the flightID:
+ * - flightID - minID when the IDs are dense (range up to 4n), read back
+ *   through a table indexed by that offset
+ * - otherwise the flightID's rank, from a sort of (flightID, index) keys
+ * Fields are only as wide as their range in this batch. Batches whose
+ * fields do not fit in 63 bits, and batches below BULK_THRESHOLD flights
+ * (-Dgator.bulkSort.threshold=N, default 64), go through a PairingHeap.
+ *
+ * Key Operations:
+ * - insert: O(1)
+ * - first extractMax: O(n log n) primitive sort, Arrays.parallelSort
+ *   from PARALLEL_THRESHOLD flights
+ * - extractMax: O(1)
+ */
+public class SortedPendingQueue implements PendingQueue {
+    static final int BULK_THRESHOLD = Integer.getInteger("gator.bulkSort.threshold", 64);
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+    private static final int DENSE_FACTOR = 4;
+
+    private Flight[] flights = new Flight[64];  // Insertion order
+    private int size;
+    private long[] keys = new long[64];
+    private Flight[] slots = new Flight[64];    // Flight per slot
+    private int slotCount;
+    private long slotMask;
+    private int next;                           // Read position after sort()
+    private boolean ordered;                    // Sorted, or handed to the fallback
+    private final PairingHeap fallback = new PairingHeap();
+    private boolean useFallback;
+
+    /**
+     * Number of flights not yet extracted
+     */
+    @Override
+    public int size() {
+        return useFallback ? fallback.size() : size - next;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return useFallback ? fallback.isEmpty() : next == size;
+    }
+
+    /**
+     * Add a flight (before the first extractMax since clear)
+     */
+    @Override
+    public void insert(Flight flight) {
+        if (size == flights.length) {
+            flights = Arrays.copyOf(flights, size * 2);
+        }
+        flights[size++] = flight;
+    }
+
+    /**
+     * Next flight in greedy order
+     */
+    @Override
+    public Flight extractMax() {
+        if (!ordered) {
+            order();
+        }
+        if (useFallback) {
+            return fallback.extractMax();
+        }
+        if (next == size) {
+            return null;
+        }
+        return slots[(int) (keys[next++] & slotMask)];
+    }
+
+    /**
+     * Remove all flights
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(flights, 0, size, null);
+        Arrays.fill(slots, 0, slotCount, null);
+        slotCount = 0;
+        size = 0;
+        next = 0;
+        ordered = false;
+        useFallback = false;
+        fallback.clear();
+    }
+
+    private void order() {
+        ordered = true;
+        if (size >= BULK_THRESHOLD && sort()) {
+            return;
+        }
+        useFallback = true;
+        for (int i = 0; i < size; i++) {
+            fallback.insert(flights[i]);
+        }
+    }
+
+    /**
+     * Sort the inserted flights into extractMax order
+     * Returns false, leaving the flights unsorted, if the keys do not fit
+     */
+    private boolean sort() {
+        next = 0;
+
+        long minPriority = Long.MAX_VALUE, maxPriority = Long.MIN_VALUE;
+        long minSubmit = Long.MAX_VALUE, maxSubmit = Long.MIN_VALUE;
+        long minID = Long.MAX_VALUE, maxID = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            Flight flight = flights[i];
+            minPriority = Math.min(minPriority, flight.priority);
+            maxPriority = Math.max(maxPriority, flight.priority);
+            minSubmit = Math.min(minSubmit, flight.submitTime);
+            maxSubmit = Math.max(maxSubmit, flight.submitTime);
+            minID = Math.min(minID, flight.flightID);
+            maxID = Math.max(maxID, flight.flightID);
+        }
+
+        boolean dense = maxID - minID < (long) DENSE_FACTOR * size;
+        int priorityBits = bits(maxPriority - minPriority);
+        int submitBits = bits(maxSubmit - minSubmit);
+        int slotBits = bits(dense ? maxID - minID : size - 1);
+        if (priorityBits + submitBits + slotBits > 63) {
+            return false;
+        }
+        slotMask = (1L << slotBits) - 1;
+
+        slotCount = dense ? (int) (maxID - minID + 1) : size;
+        if (keys.length < size) {
+            keys = new long[Math.max(size, keys.length * 2)];
+        }
+        if (slots.length < slotCount) {
+            slots = new Flight[Math.max(slotCount, slots.length * 2)];
+        }
+
+        if (dense) {
+            for (int i = 0; i < size; i++) {
+                slots[(int) (flights[i].flightID - minID)] = flights[i];
+            }
+        } else {
+            // Rank the flightIDs: (flightID, index) keys sorted
+            for (int i = 0; i < size; i++) {
+                keys[i] = ((long) flights[i].flightID << 32) | i;
+            }
+            sortKeys();
+            for (int rank = 0; rank < size; rank++) {
+                slots[rank] = flights[(int) keys[rank]];
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            Flight flight = dense ? flights[i] : slots[i];
+            long slot = dense ? flight.flightID - minID : i;
+            keys[i] = (((maxPriority - flight.priority) << submitBits
+                        | (flight.submitTime - minSubmit)) << slotBits) | slot;
+        }
+        sortKeys();
+        return true;
+    }
+
+    private void sortKeys() {
+        if (size >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(keys, 0, size);
+        } else {
+            Arrays.sort(keys, 0, size);
+        }
+    }
+
+    /**
+     * Bits needed for values 0..range
+     */
+    private static int bits(long range) {
+        return 64 - Long.numberOfLeadingZeros(range);
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.Collection;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Timetable of scheduled flights ordered by (ETA, flightID)
+ * Flights with ETA <= 0 are never held. An implementation keeps each
+ * flight's position in flight.completionHeapIndex (> 0 while held).
+ *
+ * Removed flights (flight.removed) may be left in place as tombstones:
+ * queries skip them, extraction drops them, and the structure is compacted
+ * once they exceed MAX_TOMBSTONE_RATIO of the entries.
+ */
+public interface Timetable {
+    double MAX_TOMBSTONE_RATIO = 0.25;
+
+    void insert(Flight flight);
+
+    /**
+     * Remove a held flight (ignored if not held)
+     */
+    void delete(Flight flight);
+
+    /**
+     * Leave a held flight whose removed flag is set as a tombstone: O(1)
+     * apart from an occasional O(n) compaction
+     */
+    void markRemoved(Flight flight);
+
+    /**
+     * Live flights held (tombstones excluded)
+     */
+    int size();
+
+    boolean isEmpty();
+
+    /**
+     * Remove and return all flights with ETA <= t, by (ETA, flightID)
+     */
+    List<Flight> extractAllUpTo(int t);
+
+    /**
+     * Flights with ETA in [t1, t2] not started by currentTime, by (ETA, flightID)
+     */
+    List<Flight> getFlightsInRange(int t1, int t2, int currentTime);
+
+    /**
+     * Replace the contents with the given flights (those with ETA > 0)
+     * in O(n), as one heapify instead of n inserts
+     */
+    void build(Collection<Flight> flights);
+
+    /**
+     * Copy with every flight replaced by remap(flight) (see fork)
+     * Flights remapped to null, such as tombstones, are left out
+     */
+    Timetable copy(UnaryOperator<Flight> remap);
+}
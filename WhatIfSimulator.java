@@ -0,0 +1,165 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * What-If Simulator - Speculative commands on forks of a live scheduler
+ * Takes one frozen baseline fork of the live scheduler, then runs each
+ * scenario (a list of commands in the input grammar) on its own fork of the
+ * baseline and reports the command output plus every ETA that differs from
+ * the baseline. The live scheduler is never touched after construction.
+ *
+ * Scenarios are independent and can run in parallel on separate threads.
+ *
+ * Usage: java WhatIfSimulator <input_filename> <scenario_file>...
+ *   Replays the input (up to Quit) as the live schedule, then runs every
+ *   scenario file against it in parallel and prints the results.
+ */
+public class WhatIfSimulator {
+    private final AirTrafficScheduler baseline;
+    private final Map<Integer, Integer> baselineETAs;
+
+    /**
+     * Result of one scenario
+     */
+    public static class ScenarioResult {
+        public final List<String> output;       // Output of the scenario commands
+        public final List<String> etaChanges;   // "id: old -> new" sorted by flightID
+
+        ScenarioResult(List<String> output, List<String> etaChanges) {
+            this.output = output;
+            this.etaChanges = etaChanges;
+        }
+    }
+
+    /**
+     * Freeze a baseline copy of the live scheduler
+     * Must be called on the thread that owns the live scheduler
+     */
+    public WhatIfSimulator(AirTrafficScheduler live) {
+        this.baseline = live.fork();
+        this.baselineETAs = baseline.etaSnapshot();
+    }
+
+    /**
+     * Apply commands to a fresh fork and diff its ETAs against the baseline
+     * Safe to call from several threads at once
+     */
+    public ScenarioResult run(List<String> commands) {
+        // The baseline is only ever read, so concurrent forks are safe
+        AirTrafficScheduler fork = baseline.fork();
+
+        List<String> output = new ArrayList<>();
+        for (String command : commands) {
+            command = command.trim();
+            if (command.isEmpty()) {
+                continue;
+            }
+            output.addAll(gatorAirTrafficScheduler.parseAndExecute(fork, command));
+        }
+
+        return new ScenarioResult(output, diff(baselineETAs, fork.etaSnapshot()));
+    }
+
+    /**
+     * Run all scenarios in parallel on up to the given number of threads
+     * Results are returned in scenario order
+     */
+    public List<ScenarioResult> runAll(List<List<String>> scenarios, int threads)
+            throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, scenarios.size())));
+        try {
+            List<Future<ScenarioResult>> futures = new ArrayList<>();
+            for (List<String> scenario : scenarios) {
+                futures.add(pool.submit(() -> run(scenario)));
+            }
+            List<ScenarioResult> results = new ArrayList<>();
+            for (Future<ScenarioResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * ETA differences sorted by flightID
+     * Flights gone from the scenario (landed, canceled, grounded) show "none"
+     */
+    static List<String> diff(Map<Integer, Integer> before, Map<Integer, Integer> after) {
+        TreeSet<Integer> ids = new TreeSet<>(before.keySet());
+        ids.addAll(after.keySet());
+
+        List<String> changes = new ArrayList<>();
+        for (int id : ids) {
+            Integer oldETA = before.get(id);
+            Integer newETA = after.get(id);
+            if (!Objects.equals(oldETA, newETA)) {
+                changes.add(String.format("%d: %s -> %s", id,
+                                          oldETA == null ? "none" : oldETA.toString(),
+                                          newETA == null ? "none" : newETA.toString()));
+            }
+        }
+        return changes;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: java WhatIfSimulator <input_filename> <scenario_file>...");
+            System.exit(1);
+        }
+
+        try {
+            // Build the live schedule from the input file
+            AirTrafficScheduler live = new AirTrafficScheduler();
+            for (String line : readCommands(args[0])) {
+                if (line.startsWith("Quit")) {
+                    break;
+                }
+                gatorAirTrafficScheduler.parseAndExecute(live, line);
+            }
+
+            List<List<String>> scenarios = new ArrayList<>();
+            for (int i = 1; i < args.length; i++) {
+                scenarios.add(readCommands(args[i]));
+            }
+
+            WhatIfSimulator simulator = new WhatIfSimulator(live);
+            List<ScenarioResult> results = simulator.runAll(scenarios, Runtime.getRuntime().availableProcessors());
+
+            for (int i = 0; i < results.size(); i++) {
+                ScenarioResult result = results.get(i);
+                System.out.println("=== Scenario " + args[i + 1] + " ===");
+                for (String line : result.output) {
+                    System.out.println(line);
+                }
+                System.out.println("ETA changes vs live: " + (result.etaChanges.isEmpty() ? "none" : ""));
+                for (String change : result.etaChanges) {
+                    System.out.println("  " + change);
+                }
+            }
+
+        } catch (IOException e) {
+            System.err.println("Error: IO exception - " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error: scenario failed - " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static List<String> readCommands(String filename) throws IOException {
+        List<String> commands = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    commands.add(line);
+                }
+            }
+        }
+        return commands;
+    }
+}
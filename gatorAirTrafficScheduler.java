@@ -6,65 +6,565 @@ import java.util.*;
  * Handles command-line input/output and command parsing
  * 
  * Usage: java gatorAirTrafficScheduler input_filename
+ *        java gatorAirTrafficScheduler --server port
+ *        java gatorAirTrafficScheduler --stream [--flush=command|tick|<bytes>]
+ *        java gatorAirTrafficScheduler --standby port serve_port
+ *          replicate a primary started with --replicate-to, then serve on
+ *          serve_port once the primary's command log ends
+ * Scheduler options (any mode):
+ *        --lazy   defer rescheduling until results are observed (no "Updated ETAs")
+ *        --horizon=<n>     assign exactly only flights starting within n time
+ *                          units; later ones are assigned as time reaches them
+ *        --fair-share=<f>  no airline takes more than fraction f of the runway
+ *                          starts in a window while others wait (0 < f < 1;
+ *                          not with --lazy)
+ *        --fair-window=<n> length of that window (default 100)
+ *        --archive=<dir>   append landed flights to a FlightArchive in dir
+ *        --store=<dir>     keep the live flights durable in a FlightStore in dir;
+ *                          a store left by a crashed run, or by input ending
+ *                          without Quit(), is restored at startup
+ *        --replicate-to=<host>:<port>  ship applied commands to a standby
+ *                          (needs the same scheduler options on both sides)
+ *        --eta-threshold=<n>   report an ETA only once it moved more than n
+ *                              from the ETA last reported for the flight
+ *        --eta-coalesce    hold "Updated ETAs" and report them at the next Tick
+ *        --output=binary   write BinaryOutput records instead of text (file and
+ *                          stream modes; file mode writes <input>_output_file.bin)
+ *        --input=binary    read BinaryCommands records instead of text (file and
+ *                          stream modes; convert with java BinaryCommands)
+ *        --engine=<name>   data structures to schedule with (see SchedulingEngine)
  */
 public class gatorAirTrafficScheduler {
+    // Output buffer bounds for streaming mode
+    private static final int MIN_STREAM_BUFFER = 8 * 1024;
+    private static final int MAX_STREAM_BUFFER = 1024 * 1024;
+    // Each of the two buffers of the output writer thread in file mode
+    private static final int OUTPUT_BUFFER = Integer.getInteger("gator.output.bufferSize", 256 * 1024);
+    
+    /**
+     * When output is pushed to the underlying stream before close
+     */
+    enum FlushPolicy {
+        NONE,       // Only when the buffer fills and at close (file mode)
+        COMMAND,    // After every command's output
+        TICK,       // After every Tick command's output
+        SIZE        // Once a configured number of bytes is buffered
+    }
+    
+    // Scheduler options shared by all modes
+    private static boolean lazyScheduling = false;
+    private static int horizon = 0;
+    private static double fairShare = 0;
+    private static int fairWindow = 100;
+    private static String archiveDir = null;
+    private static int etaThreshold = 0;
+    private static boolean etaCoalesce = false;
+    private static FlightArchive archive = null;
+    private static String storeDir = null;
+    private static FlightStore store = null;
+    private static String replicateTo = null;
+    private static CommandShipper shipper = null;
+    private static boolean binaryOutput = false;
+    private static boolean binaryInput = false;
+    private static SchedulingEngine engine = SchedulingEngine.DEFAULT;
     
     public static void main(String[] args) {
+        // Strip scheduler options, leaving the mode arguments
+        List<String> modeArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--lazy")) {
+                lazyScheduling = true;
+            } else if (arg.startsWith("--horizon=")) {
+                try {
+                    horizon = Integer.parseInt(arg.substring("--horizon=".length()));
+                } catch (NumberFormatException e) {
+                    horizon = -1;
+                }
+                if (horizon <= 0) {
+                    System.err.println("Error: --horizon must be a positive number");
+                    System.exit(1);
+                }
+            } else if (arg.startsWith("--fair-share=")) {
+                try {
+                    fairShare = Double.parseDouble(arg.substring("--fair-share=".length()));
+                } catch (NumberFormatException e) {
+                    fairShare = -1;
+                }
+                if (!(fairShare > 0 && fairShare < 1)) {
+                    System.err.println("Error: --fair-share must be a fraction between 0 and 1");
+                    System.exit(1);
+                }
+            } else if (arg.startsWith("--fair-window=")) {
+                try {
+                    fairWindow = Integer.parseInt(arg.substring("--fair-window=".length()));
+                } catch (NumberFormatException e) {
+                    fairWindow = -1;
+                }
+                if (fairWindow <= 0) {
+                    System.err.println("Error: --fair-window must be a positive number");
+                    System.exit(1);
+                }
+            } else if (arg.startsWith("--archive=")) {
+                archiveDir = arg.substring("--archive=".length());
+            } else if (arg.startsWith("--store=")) {
+                storeDir = arg.substring("--store=".length());
+            } else if (arg.startsWith("--replicate-to=")) {
+                replicateTo = arg.substring("--replicate-to=".length());
+                int colon = replicateTo.lastIndexOf(':');
+                if (colon <= 0 || !replicateTo.substring(colon + 1).matches("\\d+")) {
+                    System.err.println("Error: --replicate-to must be <host>:<port>");
+                    System.exit(1);
+                }
+            } else if (arg.startsWith("--eta-threshold=")) {
+                try {
+                    etaThreshold = Integer.parseInt(arg.substring("--eta-threshold=".length()));
+                } catch (NumberFormatException e) {
+                    etaThreshold = -1;
+                }
+                if (etaThreshold < 0) {
+                    System.err.println("Error: --eta-threshold must be a non-negative number");
+                    System.exit(1);
+                }
+            } else if (arg.equals("--eta-coalesce")) {
+                etaCoalesce = true;
+            } else if (arg.startsWith("--output=")) {
+                String format = arg.substring("--output=".length());
+                if (!format.equals("text") && !format.equals("binary")) {
+                    System.err.println("Error: --output must be text or binary");
+                    System.exit(1);
+                }
+                binaryOutput = format.equals("binary");
+            } else if (arg.startsWith("--input=")) {
+                String format = arg.substring("--input=".length());
+                if (!format.equals("text") && !format.equals("binary")) {
+                    System.err.println("Error: --input must be text or binary");
+                    System.exit(1);
+                }
+                binaryInput = format.equals("binary");
+            } else if (arg.startsWith("--engine=")) {
+                engine = SchedulingEngine.forName(arg.substring("--engine=".length()));
+                if (engine == null) {
+                    System.err.println("Error: --engine must be one of " + SchedulingEngine.names());
+                    System.exit(1);
+                }
+            } else {
+                modeArgs.add(arg);
+            }
+        }
+        args = modeArgs.toArray(new String[0]);
+        if (horizon > 0 && (lazyScheduling || fairShare > 0)) {
+            System.err.println("Error: --horizon cannot be combined with --lazy or --fair-share");
+            System.exit(1);
+        }
+        if (lazyScheduling && fairShare > 0) {
+            // Skipped passes never report their starts to the fairness window
+            System.err.println("Error: --lazy cannot be combined with --fair-share");
+            System.exit(1);
+        }
+        boolean standby = args.length >= 1 && args[0].equals("--standby");
+        if (storeDir != null && (replicateTo != null || standby)) {
+            // A restored store holds state the command log never saw
+            System.err.println("Error: --store cannot be combined with replication");
+            System.exit(1);
+        }
+        
         // Check command-line arguments
+        if (args.length == 2 && args[0].equals("--server")) {
+            if (binaryOutput || binaryInput) {
+                System.err.println("Error: server mode only supports text input and output");
+                System.exit(1);
+            }
+            runServer(Integer.parseInt(args[1]));
+            return;
+        }
+        if (standby) {
+            if (args.length != 3 || replicateTo != null || binaryOutput || binaryInput) {
+                printUsage();
+                System.exit(1);
+            }
+            runStandby(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("--stream")) {
+            runStream(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         if (args.length != 1) {
-            System.err.println("Usage: java gatorAirTrafficScheduler <input_filename>");
+            printUsage();
             System.exit(1);
         }
         
         String inputFilename = args[0];
-        String outputFilename = inputFilename.replace(".txt", "") + "_output_file.txt";
+        String outputFilename = inputFilename.replace(binaryInput ? ".bin" : ".txt", "")
+                                + (binaryOutput ? "_output_file.bin" : "_output_file.txt");
         
-        AirTrafficScheduler scheduler = new AirTrafficScheduler();
+        AirTrafficScheduler scheduler = newScheduler();
+        SchedulerMetrics.start();
         
         try {
             // Read input file
-            BufferedReader reader = new BufferedReader(new FileReader(inputFilename));
-            // Write output file
-            BufferedWriter writer = new BufferedWriter(new FileWriter(outputFilename));
+            FileInputStream input = new FileInputStream(inputFilename);
+            BufferedReader reader = null;
+            BinaryCommands.Reader commands = null;
+            if (binaryInput) {
+                commands = new BinaryCommands.Reader(input.getChannel(), 256 * 1024);
+            } else {
+                reader = new BufferedReader(new InputStreamReader(input));
+            }
+            // Write output file (from a writer thread)
+            OutputStream stream = new AsyncOutputStream(new FileOutputStream(outputFilename).getChannel(),
+                                                        OUTPUT_BUFFER);
+            boolean finished;
+            if (binaryOutput) {
+                BinaryOutput binary = new BinaryOutput(stream, 64 * 1024);
+                scheduler.setOutputSink(binary);
+                finished = processCommands(scheduler, reader, commands, null, binary, FlushPolicy.NONE, 0);
+                stream.close();
+            } else {
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(stream));
+                finished = processCommands(scheduler, reader, commands, writer, null, FlushPolicy.NONE, 0);
+                writer.close();
+            }
             
-            String line;
-            while ((line = reader.readLine()) != null) {
+            input.close();
+            closeArchive(finished);
+            SchedulerMetrics.stop();
+            
+        } catch (FileNotFoundException e) {
+            System.err.println("Error: Input file not found - " + inputFilename);
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Error: IO exception - " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Read commands from stdin and write results to stdout until Quit() or EOF
+     * Memory stays bounded: one input line and three output buffers of at
+     * most MAX_STREAM_BUFFER (the writer's and the two the output thread
+     * swaps) are held, landed flights leave the scheduler
+     */
+    private static void runStream(String[] options) {
+        FlushPolicy policy = FlushPolicy.COMMAND;
+        int flushBytes = 0;
+        
+        for (String option : options) {
+            if (!option.startsWith("--flush=")) {
+                printUsage();
+                System.exit(1);
+            }
+            String value = option.substring("--flush=".length());
+            if (value.equals("command")) {
+                policy = FlushPolicy.COMMAND;
+            } else if (value.equals("tick")) {
+                policy = FlushPolicy.TICK;
+            } else {
+                try {
+                    flushBytes = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    flushBytes = -1;
+                }
+                if (flushBytes <= 0) {
+                    System.err.println("Error: --flush must be command, tick or a positive byte count");
+                    System.exit(1);
+                }
+                policy = FlushPolicy.SIZE;
+            }
+        }
+        
+        // Buffer just large enough for the policy, never unbounded
+        int bufferSize = MAX_STREAM_BUFFER;
+        if (policy == FlushPolicy.COMMAND) {
+            bufferSize = 64 * 1024;
+        } else if (policy == FlushPolicy.SIZE) {
+            bufferSize = Math.max(MIN_STREAM_BUFFER, Math.min(flushBytes, MAX_STREAM_BUFFER));
+        }
+        
+        AirTrafficScheduler scheduler = newScheduler();
+        SchedulerMetrics.start();
+        
+        try {
+            BufferedReader reader = null;
+            BinaryCommands.Reader commands = null;
+            if (binaryInput) {
+                commands = new BinaryCommands.Reader(new FileInputStream(FileDescriptor.in).getChannel(),
+                                                     MIN_STREAM_BUFFER);
+            } else {
+                reader = new BufferedReader(new InputStreamReader(System.in));
+            }
+            OutputStream stream = new AsyncOutputStream(new FileOutputStream(FileDescriptor.out).getChannel(),
+                                                        bufferSize);
+            boolean finished;
+            if (binaryOutput) {
+                BinaryOutput binary = new BinaryOutput(stream, bufferSize);
+                scheduler.setOutputSink(binary);
+                finished = processCommands(scheduler, reader, commands, null, binary, policy, flushBytes);
+                stream.close();
+            } else {
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(stream), bufferSize);
+                finished = processCommands(scheduler, reader, commands, writer, null, policy, flushBytes);
+                writer.close();
+            }
+            closeArchive(finished);
+            SchedulerMetrics.stop();
+            
+        } catch (IOException e) {
+            System.err.println("Error: IO exception - " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Execute commands until Quit() or end of input
+     * Shared by file and streaming modes. Commands come from reader as text
+     * lines, or from commands as binary records. Output goes to writer as
+     * text, or to binary when it is the scheduler's sink; then the scheduler
+     * writes its own output and only lines produced outside it (parse
+     * errors, Initialize, Quit) are passed on here.
+     * Returns true if the input ended with Quit()
+     */
+    private static boolean processCommands(AirTrafficScheduler scheduler, BufferedReader reader,
+                                           BinaryCommands.Reader commands,
+                                           BufferedWriter writer, BinaryOutput binary,
+                                           FlushPolicy policy, int flushBytes) throws IOException {
+        long buffered = 0;
+        int[] params = new int[BinaryCommands.MAX_ARITY];   // Reused by every binary command
+        
+        while (true) {
+            List<String> output;
+            boolean tick;
+            boolean quit;
+            if (commands != null) {
+                int opcode = commands.next(params);
+                if (opcode == 0) {
+                    break;
+                }
+                output = execute(scheduler, opcode, params);
+                tick = opcode == BinaryCommands.TICK;
+                quit = opcode == BinaryCommands.QUIT;
+                if (shipper != null && !quit) {
+                    shipper.ship(format(opcode, params));
+                }
+            } else {
+                String line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
                 line = line.trim();
                 if (line.isEmpty()) {
                     continue;
                 }
                 
                 // Parse and execute command
-                List<String> output = parseAndExecute(scheduler, line);
-                
-                // Write output
-                for (String outputLine : output) {
+                output = parseAndExecute(scheduler, line);
+                tick = line.startsWith("Tick");
+                quit = line.startsWith("Quit");
+                if (shipper != null && !quit) {
+                    shipper.ship(line);
+                }
+            }
+            
+            // Write output
+            long outputStart = SchedulerMetrics.ENABLED ? System.nanoTime() : 0L;
+            for (String outputLine : output) {
+                if (binary != null) {
+                    binary.line(outputLine);
+                } else {
                     writer.write(outputLine);
                     writer.newLine();
-                }
-                
-                // Check for Quit command
-                if (line.startsWith("Quit")) {
-                    break;
+                    buffered += outputLine.length() + 1;
                 }
             }
             
-            reader.close();
-            writer.close();
+            boolean flush;
+            switch (policy) {
+                case COMMAND:
+                    flush = true;
+                    break;
+                case TICK:
+                    flush = tick;
+                    break;
+                case SIZE:
+                    flush = (binary != null ? binary.buffered() : buffered) >= flushBytes;
+                    break;
+                default:
+                    flush = false;
+            }
+            if (flush) {
+                flush(writer, binary);
+                buffered = 0;
+            }
+            if (SchedulerMetrics.ENABLED) {
+                SchedulerMetrics.recordPhase(SchedulerMetrics.Phase.OUTPUT, outputStart);
+            }
             
-        } catch (FileNotFoundException e) {
-            System.err.println("Error: Input file not found - " + inputFilename);
+            // Check for Quit command
+            if (quit) {
+                flush(writer, binary);
+                return true;
+            }
+        }
+        
+        flush(writer, binary);
+        return false;
+    }
+    
+    /**
+     * Text form of a binary command, for the command log
+     */
+    private static String format(int opcode, int[] params) {
+        StringBuilder text = new StringBuilder(BinaryCommands.NAMES[opcode]).append('(');
+        for (int i = 0; i < BinaryCommands.ARITY[opcode]; i++) {
+            text.append(i == 0 ? "" : ", ").append(params[i]);
+        }
+        return text.append(')').toString();
+    }
+    
+    private static void flush(BufferedWriter writer, BinaryOutput binary) throws IOException {
+        if (binary != null) {
+            binary.flush();
+        } else {
+            writer.flush();
+        }
+    }
+    
+    /**
+     * Create a scheduler configured from the command-line options
+     */
+    private static AirTrafficScheduler newScheduler() {
+        AirTrafficScheduler scheduler = new AirTrafficScheduler(engine);
+        scheduler.setLazyScheduling(lazyScheduling);
+        scheduler.setEtaUpdatePolicy(etaThreshold, etaCoalesce);
+        scheduler.setFairness(fairShare, fairWindow);
+        if (archiveDir != null) {
+            try {
+                archive = new FlightArchive(java.nio.file.Paths.get(archiveDir),
+                                            Integer.getInteger("gator.archive.segmentSpan", 1000));
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error: cannot open archive " + archiveDir + " - " + e.getMessage());
+                System.exit(1);
+            }
+            scheduler.setArchive(archive);
+        }
+        if (storeDir != null) {
+            try {
+                store = new FlightStore(java.nio.file.Paths.get(storeDir));
+                scheduler.setStore(store);
+            } catch (IOException e) {
+                System.err.println("Error: cannot open flight store " + storeDir + " - " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        scheduler.setHorizon(horizon);
+        if (replicateTo != null) {
+            int colon = replicateTo.lastIndexOf(':');
+            try {
+                shipper = new CommandShipper(replicateTo.substring(0, colon),
+                                             Integer.parseInt(replicateTo.substring(colon + 1)),
+                                             schedulerOptions());
+            } catch (IOException e) {
+                System.err.println("Error: cannot reach standby " + replicateTo + " - " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        return scheduler;
+    }
+    
+    /**
+     * Options that change the schedule, which a standby must share
+     */
+    private static String schedulerOptions() {
+        return "engine=" + engine.name() + " lazy=" + lazyScheduling + " horizon=" + horizon
+            + " fair-share=" + fairShare + " fair-window=" + fairWindow
+            + " eta-threshold=" + etaThreshold + " eta-coalesce=" + etaCoalesce;
+    }
+    
+    /**
+     * Write out any landed flights still queued for the archive, force
+     * the flight store to disk (marked finished after Quit()), and end the
+     * command log
+     */
+    private static void closeArchive(boolean finished) throws IOException {
+        if (archive != null) {
+            archive.close();
+        }
+        if (store != null) {
+            if (finished) {
+                store.finish();
+            }
+            store.close();
+        }
+        if (shipper != null) {
+            shipper.close();
+        }
+    }
+    
+    private static void printUsage() {
+        System.err.println("Usage: java gatorAirTrafficScheduler <input_filename>");
+        System.err.println("       java gatorAirTrafficScheduler --server <port>");
+        System.err.println("       java gatorAirTrafficScheduler --stream [--flush=command|tick|<bytes>]");
+        System.err.println("       java gatorAirTrafficScheduler --standby <port> <serve_port>");
+        System.err.println("Options: --lazy, --horizon=<n>, --fair-share=<f>, --fair-window=<n>,");
+        System.err.println("         --archive=<dir>, --store=<dir>, --replicate-to=<host>:<port>,");
+        System.err.println("         --eta-threshold=<n>, --eta-coalesce, --output=text|binary,");
+        System.err.println("         --input=text|binary, --engine=<name>");
+    }
+    
+    /**
+     * Serve the command grammar over TCP until the process is stopped
+     */
+    private static void runServer(int port) {
+        AirTrafficScheduler scheduler = newScheduler();
+        SchedulerMetrics.start();
+        serve(scheduler, port);
+    }
+    
+    /**
+     * Replicate a primary's command log, then take over as the server
+     */
+    private static void runStandby(int port, int servePort) {
+        AirTrafficScheduler scheduler = newScheduler();
+        SchedulerMetrics.start();
+        
+        try {
+            SchedulerStandby standby = new SchedulerStandby(scheduler, schedulerOptions(), port);
+            System.err.println("Standby waiting for primary on port " + standby.getPort());
+            standby.run();
+            System.err.println("Standby promoted after " + standby.applied() + " commands");
+        } catch (IOException e) {
+            System.err.println("Error: IO exception - " + e.getMessage());
             System.exit(1);
+        }
+        serve(scheduler, servePort);
+    }
+    
+    /**
+     * Serve a scheduler over TCP until the process is stopped
+     */
+    private static void serve(AirTrafficScheduler scheduler, int port) {
+        try {
+            SchedulerServer server = new SchedulerServer(scheduler, port);
+            server.setShipper(shipper);
+            System.err.println("Scheduler listening on port " + server.getPort());
+            server.run();
         } catch (IOException e) {
             System.err.println("Error: IO exception - " + e.getMessage());
             System.exit(1);
+        } finally {
+            try {
+                closeArchive(false);
+            } catch (IOException e) {
+                System.err.println("Error: IO exception - " + e.getMessage());
+            }
+            SchedulerMetrics.stop();
         }
     }
     
     /**
      * Parse command and execute appropriate operation
      */
-    private static List<String> parseAndExecute(AirTrafficScheduler scheduler, String command) {
+    static List<String> parseAndExecute(AirTrafficScheduler scheduler, String command) {
         try {
             // Remove whitespace and parse command
             command = command.trim();
@@ -81,56 +581,134 @@ public class gatorAirTrafficScheduler {
             String paramsStr = command.substring(openParen + 1, closeParen).trim();
             
             // Parse parameters
-            List<Integer> params = new ArrayList<>();
+            int[] params = new int[0];
             if (!paramsStr.isEmpty()) {
                 String[] paramArray = paramsStr.split(",");
-                for (String param : paramArray) {
-                    params.add(Integer.parseInt(param.trim()));
+                params = new int[paramArray.length];
+                for (int i = 0; i < paramArray.length; i++) {
+                    params[i] = Integer.parseInt(paramArray[i].trim());
                 }
             }
             
-            // Execute command
-            switch (commandName) {
-                case "Initialize":
-                    return Arrays.asList(scheduler.initialize(params.get(0)));
-                    
-                case "SubmitFlight":
-                    return scheduler.submitFlight(params.get(0), params.get(1), 
-                                                  params.get(2), params.get(3), params.get(4));
-                    
-                case "CancelFlight":
-                    return scheduler.cancelFlight(params.get(0), params.get(1));
-                    
-                case "Reprioritize":
-                    return scheduler.reprioritize(params.get(0), params.get(1), params.get(2));
-                    
-                case "AddRunways":
-                    return scheduler.addRunways(params.get(0), params.get(1));
-                    
-                case "GroundHold":
-                    return scheduler.groundHold(params.get(0), params.get(1), params.get(2));
-                    
-                case "PrintActive":
-                    return scheduler.printActive();
-                    
-                case "PrintSchedule":
-                    return scheduler.printSchedule(params.get(0), params.get(1));
-                    
-                case "Tick":
-                    return scheduler.tick(params.get(0));
-                    
-                case "Quit":
-                    return Arrays.asList("Program Terminated!!");
-                    
-                default:
-                    return Arrays.asList("Error: Unknown command - " + commandName);
-            }
+            return execute(scheduler, commandName, params, params.length, paramsStr);
             
         } catch (Exception e) {
             return Arrays.asList("Error parsing command: " + command + " - " + e.getMessage());
         }
     }
+    
+    /**
+     * Execute a pre-parsed binary command (parameters in params[0..arity))
+     */
+    static List<String> execute(AirTrafficScheduler scheduler, int opcode, int[] params) {
+        String commandName = BinaryCommands.NAMES[opcode];
+        try {
+            return execute(scheduler, commandName, params, BinaryCommands.ARITY[opcode], null);
+        } catch (Exception e) {
+            return Arrays.asList("Error executing command: " + commandName + " - " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Execute a command with metrics and a flight recorder event
+     * arguments is the parameter text for the event (built from params if null)
+     */
+    private static List<String> execute(AirTrafficScheduler scheduler, String commandName,
+                                        int[] params, int count, String arguments) {
+        long start = SchedulerMetrics.ENABLED ? System.nanoTime() : 0L;
+        SchedulerEvents.CommandEvent event = new SchedulerEvents.CommandEvent();
+        event.begin();
+        List<String> output = null;
+        try {
+            output = dispatch(scheduler, commandName, params, count);
+            return output;
+        } finally {
+            if (SchedulerMetrics.ENABLED) {
+                SchedulerMetrics.recordCommand(commandName, start);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                if (arguments == null) {
+                    StringBuilder text = new StringBuilder();
+                    for (int i = 0; i < count; i++) {
+                        text.append(i == 0 ? "" : ", ").append(params[i]);
+                    }
+                    arguments = text.toString();
+                }
+                event.command = commandName;
+                event.arguments = arguments;
+                event.outputLines = output == null ? 0 : output.size();
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * Dispatch a parsed command to the scheduler
+     * Only the first count entries of params are parameters
+     */
+    private static List<String> dispatch(AirTrafficScheduler scheduler, String commandName,
+                                         int[] params, int count) {
+        switch (commandName) {
+            case "Initialize":
+                return Arrays.asList(scheduler.initialize(params[0]));
+                
+            case "SubmitFlight":
+                // Optional 6th parameter: capability class
+                return scheduler.submitFlight(params[0], params[1], 
+                                              params[2], params[3], params[4],
+                                              count > 5 ? params[5] : 0);
+                
+            case "CancelFlight":
+                return scheduler.cancelFlight(params[0], params[1]);
+                
+            case "Reprioritize":
+                return scheduler.reprioritize(params[0], params[1], params[2]);
+                
+            case "AddRunways":
+                // Optional 3rd parameter: mask of accepted capability classes
+                return scheduler.addRunways(params[0], params[1],
+                                            count > 2 ? params[2] : RunwayClassIndex.ALL_CLASSES);
+                
+            case "GroundHold":
+                return scheduler.groundHold(params[0], params[1], params[2]);
+                
+            case "PrintActive":
+                return scheduler.printActive();
+                
+            case "PrintSchedule":
+                return scheduler.printSchedule(params[0], params[1]);
+                
+            case "Tick":
+                return scheduler.tick(params[0]);
+                
+            case "RunwayStats":
+                return scheduler.runwayStats();
+                
+            case "FlightStatus":
+                return scheduler.flightStatus(params[0]);
+                
+            case "AirlineSchedule":
+                return scheduler.airlineSchedule(params[0]);
+                
+            case "RunwaySchedule":
+                return scheduler.runwaySchedule(params[0]);
+                
+            case "CloseRunway":
+                return scheduler.closeRunway(params[0], params[1]);
+                
+            case "ReopenRunway":
+                return scheduler.reopenRunway(params[0], params[1]);
+                
+            case "ScheduleMaintenance":
+                return scheduler.scheduleMaintenance(params[0], params[1],
+                                                     params[2], params[3]);
+                
+            case "Quit":
+                return Arrays.asList("Program Terminated!!");
+                
+            default:
+                return Arrays.asList("Error: Unknown command - " + commandName);
+        }
+    }
 }
-
-
-